@@ -0,0 +1,73 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.exception.ConflictException;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.service.InsuranceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Eight threads race to accept the same offers (each offer is attempted {@link #ATTEMPTS_PER_OFFER} times).
+ * The trial fails if more accepts succeeded than offers were accepted in the database.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AcceptContentionBenchmark {
+
+    private static final int OFFERS = 200_000;
+    private static final int ATTEMPTS_PER_OFFER = 8;
+
+    private ConfigurableApplicationContext context;
+    private InsuranceService service;
+    private long[] ids;
+
+    private final AtomicLong attempt = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(10_000);
+        service = context.getBean(InsuranceService.class);
+        OfferCreateDto dto = new OfferCreateDto("199010101234", List.of(1_500_000.0), 950.0);
+        ids = IntStream.range(0, OFFERS / 1_000)
+                .mapToObj(i -> service.createOffers(IntStream.range(0, 1_000).mapToObj(j -> dto).toList()))
+                .flatMap(List::stream)
+                .mapToLong(Offer::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void verifyAndStop() {
+        long acceptedInDatabase = context.getBean(JdbcTemplate.class).queryForObject(
+                "select count(*) from offers where status = 'ACCEPTED' and id between ? and ?", Long.class, ids[0], ids[ids.length - 1]);
+        context.close();
+        if (accepted.get() != acceptedInDatabase) {
+            throw new IllegalStateException("Double accept: " + accepted.get() + " successful accepts for " + acceptedInDatabase + " offers");
+        }
+    }
+
+    @Benchmark
+    public boolean acceptContended() {
+        long n = attempt.getAndIncrement();
+        long id = ids[(int) ((n / ATTEMPTS_PER_OFFER) % ids.length)];
+        try {
+            service.acceptOffer(id);
+            accepted.incrementAndGet();
+            return true;
+        } catch (ConflictException e) {
+            return false;
+        }
+    }
+}
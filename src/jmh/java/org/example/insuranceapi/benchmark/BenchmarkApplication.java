@@ -0,0 +1,49 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.InsuranceApiApplication;
+import org.example.insuranceapi.service.ConversionStatsEngine;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Boots the application without a web server against a private in-memory H2 database and seeds it with
+ * synthetic offers: 1% pending and past their expiry, 20% accepted, the rest pending within the validity window.
+ */
+final class BenchmarkApplication {
+
+    static final long SEEDED_ID_OFFSET = 1_000_000_000L;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(int offers) {
+        SpringApplication application = new SpringApplication(InsuranceApiApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        ConfigurableApplicationContext context = application.run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--insurance.expiry.cron=-",
+                "--logging.level.root=WARN");
+        seed(context.getBean(JdbcTemplate.class), offers);
+        context.getBean(ConversionStatsEngine.class).rebuild();
+        return context;
+    }
+
+    static void seed(JdbcTemplate jdbc, int offers) {
+        jdbc.update("""
+                insert into offers (id, personal_number, loans, monthly_amount, premium, status, created_date, accepted_date, version)
+                select x + ?, '199010101234', null, 950, 19000,
+                       case when mod(x, 100) = 0 then 'PENDING' when mod(x, 5) = 1 then 'ACCEPTED' else 'PENDING' end,
+                       case when mod(x, 100) = 0 then dateadd('DAY', -40, localtimestamp)
+                            else dateadd('MINUTE', -mod(x, 40000), localtimestamp) end,
+                       case when mod(x, 100) <> 0 and mod(x, 5) = 1 then localtimestamp end,
+                       0
+                from system_range(1, ?)
+                """, SEEDED_ID_OFFSET, offers);
+    }
+
+    static void resetExpired(JdbcTemplate jdbc) {
+        jdbc.update("update offers set status = 'PENDING', personal_number = '199010101234' where status = 'EXPIRED'");
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.service.InsuranceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One sweep per measurement: each iteration starts with 1% of the seeded offers pending past their expiry.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpirySweepBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int offers;
+
+    private ConfigurableApplicationContext context;
+    private InsuranceService service;
+    private JdbcTemplate jdbc;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(offers);
+        service = context.getBean(InsuranceService.class);
+        jdbc = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetExpired() {
+        BenchmarkApplication.resetExpired(jdbc);
+    }
+
+    @Benchmark
+    public int checkForExpiredOffers() {
+        return service.checkForExpiredOffers();
+    }
+}
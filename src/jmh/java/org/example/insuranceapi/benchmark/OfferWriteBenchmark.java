@@ -0,0 +1,58 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.service.InsuranceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OfferWriteBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int offers;
+
+    private ConfigurableApplicationContext context;
+    private InsuranceService service;
+    private OfferCreateDto dto;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(offers);
+        service = context.getBean(InsuranceService.class);
+        dto = new OfferCreateDto("199010101234", List.of(1_500_000.0, 250_000.0), 950.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class PendingOffer {
+        long id;
+
+        @Setup(Level.Invocation)
+        public void create(OfferWriteBenchmark benchmark) {
+            id = benchmark.service.createOffer(benchmark.dto).getId();
+        }
+    }
+
+    @Benchmark
+    public Offer createOffer() {
+        return service.createOffer(dto);
+    }
+
+    @Benchmark
+    public Offer acceptOffer(PendingOffer pending) {
+        return service.acceptOffer(pending.id);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.dto.RateTableDto;
+import org.example.insuranceapi.service.PricingEngine;
+import org.example.insuranceapi.service.RateTable;
+import org.example.insuranceapi.service.RuleTablePricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PremiumBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"1", "10", "100", "1000"})
+    int loans;
+
+    @Param({"flat", "tiered"})
+    String table;
+
+    private PricingEngine engine;
+    private double[] amounts;
+    private double[][] batchAmounts;
+    private String[] personalNumbers;
+    private double[] premiums;
+
+    @Setup
+    public void setUp() {
+        RateTableDto rates = "flat".equals(table)
+                ? new RateTableDto(List.of(new RateTableDto.LoanBand(null, 0.038)), List.of())
+                : new RateTableDto(
+                        List.of(new RateTableDto.LoanBand(100_000.0, 0.045), new RateTableDto.LoanBand(1_000_000.0, 0.038),
+                                new RateTableDto.LoanBand(null, 0.03)),
+                        List.of(new RateTableDto.AgeBand(18, 1.0), new RateTableDto.AgeBand(50, 1.2), new RateTableDto.AgeBand(65, 1.5)));
+        engine = new RuleTablePricingEngine(RateTable.compile(rates));
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        amounts = random.doubles(loans, 10_000, 5_000_000).toArray();
+        batchAmounts = new double[BATCH][];
+        personalNumbers = new String[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            batchAmounts[i] = random.doubles(loans, 10_000, 5_000_000).toArray();
+            personalNumbers[i] = String.format("%04d%02d%02d%04d", random.nextInt(1940, 2005), random.nextInt(1, 13),
+                    random.nextInt(1, 29), random.nextInt(10_000));
+        }
+        premiums = new double[BATCH];
+    }
+
+    @Benchmark
+    public double price() {
+        return engine.price(amounts, "199010101234");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] priceBatch() {
+        engine.priceBatch(batchAmounts, personalNumbers, premiums);
+        return premiums;
+    }
+}
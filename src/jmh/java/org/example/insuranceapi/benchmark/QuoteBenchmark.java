@@ -0,0 +1,53 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.config.QuoteCacheProperties;
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.QuoteDto;
+import org.example.insuranceapi.dto.RateTableDto;
+import org.example.insuranceapi.service.QuoteService;
+import org.example.insuranceapi.service.RateTable;
+import org.example.insuranceapi.service.RuleTablePricingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote throughput when {@code distinct} loan sets rotate through the cache: small values are almost all
+ * hits, large values with a small cache measure the pricing path.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteBenchmark {
+
+    @Param({"100", "100000"})
+    int distinct;
+
+    private QuoteService service;
+    private OfferCreateDto[] requests;
+
+    @Setup
+    public void setUp() {
+        service = new QuoteService(
+                new RuleTablePricingEngine(RateTable.compile(new RateTableDto(List.of(new RateTableDto.LoanBand(null, 0.038)), List.of()))),
+                new QuoteCacheProperties(10_000, Duration.ofMinutes(10)));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        requests = new OfferCreateDto[distinct];
+        for (int i = 0; i < requests.length; i++) {
+            List<Double> loans = random.doubles(random.nextInt(1, 5), 10_000, 5_000_000).boxed().toList();
+            requests[i] = new OfferCreateDto("199010101234", loans, 500.0);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public QuoteDto quote() {
+        return service.quote(requests[ThreadLocalRandom.current().nextInt(requests.length)]);
+    }
+}
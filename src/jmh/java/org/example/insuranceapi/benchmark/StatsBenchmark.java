@@ -0,0 +1,49 @@
+package org.example.insuranceapi.benchmark;
+
+import org.example.insuranceapi.dto.ConversionStatsDto;
+import org.example.insuranceapi.dto.StatsConsistencyDto;
+import org.example.insuranceapi.service.StatsService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatsBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    int offers;
+
+    @Param({"30", "365"})
+    int days;
+
+    private ConfigurableApplicationContext context;
+    private StatsService service;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkApplication.start(offers);
+        service = context.getBean(StatsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConversionStatsDto getConversionStats() {
+        return service.getConversionStats(days);
+    }
+
+    // Same answer computed with count queries over the offers table, as a reference for the counters.
+    @Benchmark
+    public StatsConsistencyDto checkConsistency() {
+        return service.checkConsistency(days);
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.insuranceapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency histograms in microseconds. Latency is measured from the time a request was
+ * scheduled to be sent, not from when it was sent, so a stalled server shows up in the tail instead of
+ * silently lowering the request rate.
+ */
+final class LatencyReport {
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Histogram total = new ConcurrentHistogram(3);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Map<String, LongAdder> errorCauses = new ConcurrentHashMap<>();
+    private Duration elapsed = Duration.ZERO;
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    // errorCause is null for a 2xx response, otherwise the status code or exception that failed the request.
+    void record(Operation operation, long latencyNanos, String errorCause) {
+        long micros = Math.max(1, latencyNanos / 1_000);
+        histograms.get(operation).recordValue(micros);
+        total.recordValue(micros);
+        if (errorCause != null) {
+            errors.get(operation).incrementAndGet();
+            errorCauses.computeIfAbsent(operation.name().toLowerCase(Locale.ROOT) + " " + errorCause, cause -> new LongAdder()).increment();
+        }
+    }
+
+    void drop() {
+        dropped.incrementAndGet();
+    }
+
+    // From the first measured request being due until the last one completed; longer than the configured duration when the server falls behind.
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    String format(LoadTestConfig config) {
+        double seconds = elapsed.toNanos() / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "Load test %s%n", LocalDateTime.now().withNano(0)));
+        out.append(String.format(Locale.ROOT, "target rate %.0f req/s, warmup %ds, duration %ds (%.1fs until the last response), mix %s, db %s, %d CPUs%n",
+                config.rate(), config.warmup().toSeconds(), config.duration().toSeconds(), seconds, config.mix(), config.db(),
+                Runtime.getRuntime().availableProcessors()));
+        out.append(String.format(Locale.ROOT, "dropped (over %d in flight): %d%n%n", config.maxInFlight(), dropped.get()));
+        out.append(String.format(Locale.ROOT, "%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                row(out, operation.name().toLowerCase(Locale.ROOT), histogram, errors.get(operation).get(), seconds);
+            }
+        }
+        long totalErrors = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        row(out, "total", total, totalErrors, seconds);
+        if (!errorCauses.isEmpty()) {
+            out.append(String.format("%nerrors:%n"));
+            new TreeMap<>(errorCauses).forEach((cause, count) -> out.append(String.format(Locale.ROOT, "  %-40s %d%n", cause, count.sum())));
+        }
+        return out.toString();
+    }
+
+    void write(Path file, String report) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, report);
+    }
+
+    private static void row(StringBuilder out, String name, Histogram histogram, long errors, double seconds) {
+        out.append(String.format(Locale.ROOT, "%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,188 @@
+package org.example.insuranceapi.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests on a fixed schedule (open loop): request {@code i} is due at {@code start + i / rate}
+ * whether or not earlier requests have completed, the way independent users arrive.
+ */
+final class LoadGenerator {
+
+    private static final int BODIES = 1_024;
+    private static final int MAX_PENDING_IDS = 100_000;
+
+    private final LoadTestConfig config;
+    private final URI baseUri;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Operation[] schedule;
+    private final String[] bodies;
+    private final LinkedBlockingDeque<Long> pendingIds = new LinkedBlockingDeque<>(MAX_PENDING_IDS);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    LoadGenerator(LoadTestConfig config, URI baseUri) {
+        this.config = config;
+        this.baseUri = baseUri;
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 2));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.schedule = schedule(config.mix());
+        this.bodies = bodies();
+    }
+
+    LatencyReport run() throws Exception {
+        seed();
+
+        LatencyReport report = new LatencyReport();
+        long intervalNanos = (long) (1e9 / config.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long end = measureFrom + config.duration().toNanos();
+
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            if (inFlight.get() >= config.maxInFlight()) {
+                if (measured) {
+                    report.drop();
+                }
+                continue;
+            }
+            send(schedule[(int) (i % schedule.length)], due, measured ? report : null);
+        }
+
+        long drainUntil = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        executor.shutdownNow();
+        report.finish(Duration.ofNanos(Math.max(end, lastCompletion.get()) - measureFrom));
+        return report;
+    }
+
+    private void send(Operation requested, long due, LatencyReport report) {
+        Long id = null;
+        Operation operation = requested;
+        if (requested == Operation.ACCEPT) {
+            id = pendingIds.pollFirst();
+        } else if (requested == Operation.UPDATE) {
+            id = pendingIds.peekLast();
+        }
+        if (id == null && (requested == Operation.ACCEPT || requested == Operation.UPDATE)) {
+            operation = Operation.CREATE;
+        }
+
+        Operation sent = operation;
+        inFlight.incrementAndGet();
+        client.sendAsync(request(sent, id), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - due;
+                    inFlight.decrementAndGet();
+                    String errorCause = failure != null ? rootCause(failure).getClass().getSimpleName()
+                            : response.statusCode() / 100 != 2 ? "HTTP " + response.statusCode() : null;
+                    if (errorCause == null && sent == Operation.CREATE) {
+                        response.headers().firstValue("Location").ifPresent(this::remember);
+                    }
+                    if (report != null) {
+                        report.record(sent, latency, errorCause);
+                        lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+                    }
+                });
+    }
+
+    private HttpRequest request(Operation operation, Long id) {
+        String body = bodies[ThreadLocalRandom.current().nextInt(BODIES)];
+        return switch (operation) {
+            case CREATE -> json(baseUri.resolve("/api/v1/offers")).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            case UPDATE -> json(baseUri.resolve("/api/v1/offers/" + id)).PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+            case ACCEPT -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/offers/" + id + "/accept"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            case STATS -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/stats/conversion?days=30")).GET().build();
+        };
+    }
+
+    private static Throwable rootCause(Throwable failure) {
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static HttpRequest.Builder json(URI uri) {
+        return HttpRequest.newBuilder(uri).header("Content-Type", "application/json");
+    }
+
+    private void remember(String location) {
+        pendingIds.offerLast(Long.parseLong(location.substring(location.lastIndexOf('/') + 1)));
+    }
+
+    private void seed() throws Exception {
+        for (int i = 0; i < config.seedOffers(); i++) {
+            HttpResponse<Void> response = client.send(request(Operation.CREATE, null), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with HTTP " + response.statusCode());
+            }
+            response.headers().firstValue("Location").ifPresent(this::remember);
+        }
+    }
+
+    // Interleaves operations in a cycle as long as the summed weights (smooth weighted round-robin), so even short runs hit the exact mix.
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Operation[] schedule = new Operation[totalWeight];
+        double[] credit = new double[Operation.values().length];
+        for (int slot = 0; slot < totalWeight; slot++) {
+            Operation next = null;
+            for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+                int index = entry.getKey().ordinal();
+                credit[index] += entry.getValue();
+                if (next == null || credit[index] > credit[next.ordinal()]) {
+                    next = entry.getKey();
+                }
+            }
+            credit[next.ordinal()] -= totalWeight;
+            schedule[slot] = next;
+        }
+        return schedule;
+    }
+
+    private static String[] bodies() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] bodies = new String[BODIES];
+        for (int i = 0; i < BODIES; i++) {
+            String personalNumber = String.format("%04d%02d%02d%04d", random.nextInt(1945, 2005), random.nextInt(1, 13),
+                    random.nextInt(1, 29), random.nextInt(10_000));
+            StringBuilder loans = new StringBuilder();
+            for (int loan = random.nextInt(1, 5); loan > 0; loan--) {
+                loans.append(loans.isEmpty() ? "" : ", ").append(random.nextInt(50, 5_000) * 1_000);
+            }
+            bodies[i] = "{\"personalNumber\": \"" + personalNumber + "\", \"loans\": [" + loans
+                    + "], \"monthlyPayment\": " + random.nextInt(500, 20_000) + "}";
+        }
+        return bodies;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.insuranceapi.loadtest;
+
+import org.example.insuranceapi.InsuranceApiApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the API on a random localhost port against its own H2 database and drives it with an open-loop
+ * request mix, then writes throughput and latency percentiles per operation to a report file.
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="rate=2000 duration=2m mix=create:20,accept:5,stats:75 db=file"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        if (config.db().equals("file")) {
+            // Start every run from an empty database; the migrations recreate the schema on boot.
+            Files.deleteIfExists(Path.of("target/loadtest/offers.mv.db"));
+        }
+
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.address=127.0.0.1",
+                "--spring.datasource.url=" + config.datasourceUrl(),
+                "--logging.level.root=WARN"));
+        applicationArgs.addAll(config.applicationArgs());
+
+        try (ConfigurableApplicationContext application = SpringApplication.run(InsuranceApiApplication.class,
+                applicationArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            System.out.printf("Driving http://127.0.0.1:%d at %.0f req/s for %ds after %ds warmup%n",
+                    port, config.rate(), config.duration().toSeconds(), config.warmup().toSeconds());
+
+            LatencyReport report = new LoadGenerator(config, URI.create("http://127.0.0.1:" + port)).run();
+            String formatted = report.format(config);
+            report.write(config.report(), formatted);
+            System.out.print(formatted);
+            System.out.println("Report written to " + config.report().toAbsolutePath());
+        }
+    }
+}
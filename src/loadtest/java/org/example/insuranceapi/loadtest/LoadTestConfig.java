@@ -0,0 +1,103 @@
+package org.example.insuranceapi.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings for one load-test run, parsed from {@code key=value} arguments. Arguments starting with
+ * {@code --} are passed through to the application unchanged.
+ */
+record LoadTestConfig(
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        String db,
+        int seedOffers,
+        int maxInFlight,
+        Path report,
+        List<String> applicationArgs) {
+
+    static LoadTestConfig parse(String[] args) {
+        double rate = 500;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Map<Operation, Integer> mix = parseMix("create:40,update:10,accept:10,stats:40");
+        String db = "mem";
+        int seedOffers = 1_000;
+        int maxInFlight = 10_000;
+        Path report = Path.of("target", "loadtest-report.txt");
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String value = arg.substring(split + 1);
+            switch (arg.substring(0, split)) {
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = parseDuration(value);
+                case "duration" -> duration = parseDuration(value);
+                case "mix" -> mix = parseMix(value);
+                case "db" -> db = value;
+                case "seed" -> seedOffers = Integer.parseInt(value);
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "report" -> report = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown setting: " + arg);
+            }
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        if (!db.equals("mem") && !db.equals("file")) {
+            throw new IllegalArgumentException("db must be mem or file");
+        }
+        return new LoadTestConfig(rate, warmup, duration, mix, db, seedOffers, maxInFlight, report, applicationArgs);
+    }
+
+    String datasourceUrl() {
+        return db.equals("file")
+                ? "jdbc:h2:file:./target/loadtest/offers"
+                : "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1";
+    }
+
+    // Accepts 30s, 2m or a plain number of seconds.
+    private static Duration parseDuration(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(lower.substring(0, lower.length() - 2)));
+        }
+        if (lower.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        if (lower.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(lower.substring(0, lower.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(lower));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("mix entries look like create:40, got: " + part);
+            }
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix weights must add up to more than zero");
+        }
+        return mix;
+    }
+}
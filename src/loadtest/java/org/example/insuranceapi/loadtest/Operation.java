@@ -0,0 +1,5 @@
+package org.example.insuranceapi.loadtest;
+
+enum Operation {
+    CREATE, UPDATE, ACCEPT, STATS
+}
@@ -0,0 +1,35 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "insurance.admission")
+public record AdmissionProperties(
+
+        @DefaultValue("false") boolean enabled,
+
+        // Offers created or updated per second and personal number, and how many may come at once.
+        @DefaultValue("1") double customerRate,
+
+        @DefaultValue("10") int customerBurst,
+
+        // Requests per second and client to /api/v1/offers, the client being the authenticated principal or else
+        // the remote address.
+        @DefaultValue("100") double clientRate,
+
+        @DefaultValue("200") int clientBurst,
+
+        // Only for requests whose remote address is one of the trusted proxies, the client is taken from this
+        // header instead. Callers can put anything in it, so with no trusted proxies it is never read.
+        @DefaultValue("X-Client-Id") String clientHeader,
+
+        @DefaultValue List<String> trustedProxies,
+
+        @DefaultValue("64") int stripes,
+
+        @DefaultValue("4096") int maxKeysPerStripe
+
+) {
+}
@@ -0,0 +1,18 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.archive")
+public record ArchiveProperties(
+
+        @DefaultValue("0 30 * * * *") String cron,
+
+        @DefaultValue("90d") Duration minAge,
+
+        @DefaultValue("1000") int batchSize
+
+) {
+}
@@ -0,0 +1,14 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "insurance.expiry")
+public record ExpiryProperties(
+
+        @DefaultValue("0 */15 * * * *") String cron,
+
+        @DefaultValue("500") int batchSize
+
+) {
+}
@@ -0,0 +1,18 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.expiry.wheel")
+public record ExpiryWheelProperties(
+
+        @DefaultValue("true") boolean enabled,
+
+        @DefaultValue("1s") Duration tick,
+
+        @DefaultValue("10000") int loadBatchSize
+
+) {
+}
@@ -0,0 +1,20 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.idempotency")
+public record IdempotencyProperties(
+
+        @DefaultValue("24h") Duration ttl,
+
+        @DefaultValue("64") int stripes,
+
+        @DefaultValue("2000") int maxEntriesPerStripe,
+
+        @DefaultValue("false") boolean persistent
+
+) {
+}
@@ -0,0 +1,12 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "insurance.batch")
+public record OfferBatchProperties(
+
+        @DefaultValue("5000") int maxSize
+
+) {
+}
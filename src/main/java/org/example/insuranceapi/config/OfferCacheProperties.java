@@ -0,0 +1,16 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.cache")
+public record OfferCacheProperties(
+
+        @DefaultValue("10000") long maxSize,
+
+        @DefaultValue("5m") Duration ttl
+
+) {
+}
@@ -0,0 +1,20 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.events")
+public record OfferEventStreamProperties(
+
+        @DefaultValue("10000") int bufferSize,
+
+        @DefaultValue("1000") int subscriberQueueSize,
+
+        @DefaultValue("30m") Duration timeout,
+
+        @DefaultValue("15s") Duration heartbeat
+
+) {
+}
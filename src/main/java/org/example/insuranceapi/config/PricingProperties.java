@@ -0,0 +1,23 @@
+package org.example.insuranceapi.config;
+
+import org.example.insuranceapi.dto.RateTableDto;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "insurance.pricing")
+public record PricingProperties(
+
+        List<RateTableDto.LoanBand> loanBands,
+
+        List<RateTableDto.AgeBand> ageBands
+
+) {
+
+    public RateTableDto rateTable() {
+        List<RateTableDto.LoanBand> bands = loanBands == null || loanBands.isEmpty()
+                ? List.of(new RateTableDto.LoanBand(null, 0.038))
+                : loanBands;
+        return new RateTableDto(bands, ageBands == null ? List.of() : ageBands);
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.quotes.cache")
+public record QuoteCacheProperties(
+
+        @DefaultValue("100000") long maxSize,
+
+        @DefaultValue("10m") Duration ttl
+
+) {
+}
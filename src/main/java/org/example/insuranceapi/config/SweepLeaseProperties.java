@@ -0,0 +1,21 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.expiry.lease")
+public record SweepLeaseProperties(
+
+        @DefaultValue("false") boolean enabled,
+
+        @DefaultValue("1") int shards,
+
+        @DefaultValue("2m") Duration ttl,
+
+        // Defaults to host:pid plus a random suffix.
+        String nodeId
+
+) {
+}
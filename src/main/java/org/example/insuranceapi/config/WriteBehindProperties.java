@@ -0,0 +1,20 @@
+package org.example.insuranceapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "insurance.write-behind")
+public record WriteBehindProperties(
+
+        @DefaultValue("false") boolean enabled,
+
+        @DefaultValue("10000") int queueCapacity,
+
+        @DefaultValue("500") int batchSize,
+
+        @DefaultValue("20ms") Duration flushInterval
+
+) {
+}
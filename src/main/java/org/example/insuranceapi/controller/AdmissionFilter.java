@@ -0,0 +1,194 @@
+package org.example.insuranceapi.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.insuranceapi.config.AdmissionProperties;
+import org.example.insuranceapi.service.TokenBucketLimiter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for {@code /api/v1/offers/**}: every request takes a token from its client's bucket, and
+ * creating or updating an offer also takes one from the bucket of its personal number. The client is the
+ * authenticated principal or the remote address; the client header is only believed when a configured trusted
+ * proxy sent the request, as anyone else could pick a fresh value for every request. An empty bucket is
+ * answered with 429 and {@code Retry-After} right here, so the request never reaches {@code InsuranceService}.
+ * <p>
+ * Runs ahead of {@link IdempotencyFilter}, so a rejected request is not remembered as the response to its
+ * idempotency key. A batch create takes one token per offer from each personal number's bucket, and is
+ * refused as a whole if any of them is short.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final String OFFERS = "/api/v1/offers";
+    private static final String BATCH = "/api/v1/offers/batch";
+    private static final Pattern OFFER = Pattern.compile("/api/v1/offers/\\d+");
+
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Set<String> trustedProxies;
+    private final TokenBucketLimiter clients;
+    private final TokenBucketLimiter customers;
+
+    private final Counter clientRejections;
+    private final Counter customerRejections;
+
+    public AdmissionFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.trustedProxies = Set.copyOf(properties.trustedProxies());
+        this.clients = new TokenBucketLimiter(properties.clientRate(), properties.clientBurst(),
+                properties.stripes(), properties.maxKeysPerStripe());
+        this.customers = new TokenBucketLimiter(properties.customerRate(), properties.customerBurst(),
+                properties.stripes(), properties.maxKeysPerStripe());
+        this.clientRejections = Counter.builder("insurance.admission.rejected")
+                .tag("limit", "client")
+                .description("Requests answered with 429 by admission control")
+                .register(meterRegistry);
+        this.customerRejections = Counter.builder("insurance.admission.rejected")
+                .tag("limit", "customer")
+                .description("Requests answered with 429 by admission control")
+                .register(meterRegistry);
+        Gauge.builder("insurance.admission.keys", this, filter -> filter.clients.size() + filter.customers.size())
+                .description("Clients and personal numbers with a token bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.enabled() || !request.getRequestURI().startsWith(OFFERS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long wait = clients.tryAcquire(client(request), System.nanoTime());
+        if (wait > 0) {
+            clientRejections.increment();
+            reject(response, wait, "Too many requests from this client, retry shortly");
+            return;
+        }
+
+        if (!carriesOffer(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        BufferedRequest buffered = BufferedRequest.of(request);
+        Map<String, Integer> offers = personalNumbers(buffered.body());
+        // More than a full bucket could never be admitted, so waiting would not help.
+        if (offers.values().stream().anyMatch(count -> count > properties.customerBurst())) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getOutputStream().write(("At most " + properties.customerBurst()
+                    + " offers per personal number can be created at once").getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        // A batch is admitted for all its personal numbers or none; tokens taken before a refusal are given back.
+        List<String> charged = new ArrayList<>(offers.size());
+        long now = System.nanoTime();
+        for (Map.Entry<String, Integer> offer : offers.entrySet()) {
+            wait = customers.tryAcquire(offer.getKey(), offer.getValue(), now);
+            if (wait > 0) {
+                charged.forEach(personalNumber -> customers.release(personalNumber, offers.get(personalNumber)));
+                customerRejections.increment();
+                reject(response, wait, "Too many offers for this personal number, retry shortly");
+                return;
+            }
+            charged.add(offer.getKey());
+        }
+        chain.doFilter(buffered, response);
+    }
+
+    private String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return principal.getName();
+        }
+        String address = request.getRemoteAddr();
+        if (trustedProxies.contains(address)) {
+            String client = request.getHeader(properties.clientHeader());
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return address;
+    }
+
+    private static boolean carriesOffer(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return ("POST".equals(request.getMethod()) && (uri.equals(OFFERS) || uri.equals(BATCH)))
+                || ("PUT".equals(request.getMethod()) && OFFER.matcher(uri).matches());
+    }
+
+    // Counts the offers per top-level personalNumber in one offer or an array of them; a body that is not an
+    // offer is left for the controller to reject.
+    private Map<String, Integer> personalNumbers(byte[] body) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                count(counts, personalNumber(parser));
+            } else if (first == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    count(counts, personalNumber(parser));
+                }
+            }
+        } catch (IOException e) {
+            // malformed JSON
+        }
+        return counts;
+    }
+
+    // Reads the object the parser has just entered, up to and including its end.
+    private static String personalNumber(JsonParser parser) throws IOException {
+        String personalNumber = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("personalNumber".equals(field) && value == JsonToken.VALUE_STRING) {
+                personalNumber = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return personalNumber;
+    }
+
+    private static void count(Map<String, Integer> counts, String personalNumber) {
+        if (personalNumber != null) {
+            counts.merge(personalNumber, 1, Integer::sum);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1)));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
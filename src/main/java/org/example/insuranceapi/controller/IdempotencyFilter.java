@@ -0,0 +1,130 @@
+package org.example.insuranceapi.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.insuranceapi.service.IdempotencyStore;
+import org.example.insuranceapi.service.IdempotencyStore.InProgress;
+import org.example.insuranceapi.service.IdempotencyStore.Mismatch;
+import org.example.insuranceapi.service.IdempotencyStore.Outcome;
+import org.example.insuranceapi.service.IdempotencyStore.Replay;
+import org.example.insuranceapi.service.IdempotencyStore.StoredResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Replays the stored response for a POST to {@code /api/v1/offers/**} that repeats an {@code Idempotency-Key},
+ * so client retries never reach {@code InsuranceService} twice. The key is bound to the method, path and a
+ * SHA-256 of the body, so reusing it for a different request is answered with 422. Only final outcomes are
+ * stored: a response that asks the client to try again, such as a 429 from a full write-behind queue, releases
+ * the key so the retry is processed.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+
+    public IdempotencyFilter(IdempotencyStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !request.getRequestURI().startsWith("/api/v1/offers")
+                || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        BufferedRequest buffered = BufferedRequest.of(request);
+        String fingerprint = request.getMethod() + " " + request.getRequestURI() + " " + sha256(buffered.body());
+        Outcome outcome = store.begin(key, fingerprint);
+        if (outcome instanceof Replay replay) {
+            replay(response, replay.response());
+            return;
+        }
+        if (outcome instanceof InProgress) {
+            reject(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+            return;
+        }
+        if (outcome instanceof Mismatch) {
+            reject(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            chain.doFilter(buffered, wrapper);
+            if (!isRetryable(wrapper.getStatus())) {
+                store.complete(key, new StoredResponse(fingerprint, wrapper.getStatus(), wrapper.getHeader(HttpHeaders.LOCATION),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                store.abandon(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status >= 500
+                || status == HttpStatus.REQUEST_TIMEOUT.value()
+                || status == HttpStatus.TOO_EARLY.value()
+                || status == HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null && stored.body().length > 0) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getOutputStream().write(message.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -8,31 +8,58 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.example.insuranceapi.config.OfferBatchProperties;
+import org.example.insuranceapi.dto.OfferAcceptResultDto;
+import org.example.insuranceapi.dto.OfferBatchItemDto;
+import org.example.insuranceapi.dto.OfferBatchResultDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.dto.OfferFields;
+import org.example.insuranceapi.dto.OfferPageDto;
+import org.example.insuranceapi.dto.OfferStatusDto;
+import org.example.insuranceapi.exception.PreconditionFailedException;
 import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.OfferSearchCriteria;
 import org.example.insuranceapi.dto.OfferCreateDto;
 import org.example.insuranceapi.service.InsuranceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/offers")
 @Tag(name = "Insurance Offers", description = "API for managing insurance offers")
 public class InsuranceController {
 
+    private static final String FIELDS_DESCRIPTION = "Comma-separated subset of the offer fields to return";
+
     private final InsuranceService service;
+    private final Validator validator;
+    private final OfferBatchProperties batchProperties;
 
     @Autowired
-    public InsuranceController(InsuranceService service) {
+    public InsuranceController(InsuranceService service, Validator validator, OfferBatchProperties batchProperties) {
         this.service = service;
+        this.validator = validator;
+        this.batchProperties = batchProperties;
     }
 
     @PostMapping
@@ -70,10 +97,157 @@ public class InsuranceController {
         return ResponseEntity.created(location).build();
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Create insurance offers in bulk",
+            description = "Validates every offer in the request and creates the valid ones in a single batched transaction. " +
+                    "Returns the created id or the validation errors for each item, in request order."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = OfferBatchResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Batch is empty or too large",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\": \"Batch may contain at most 5000 offers\"}")
+                    )
+            )
+    })
+    public ResponseEntity<OfferBatchResultDto> createOffers(
+            @Parameter(description = "Offers to create", required = true)
+            @RequestBody List<OfferCreateDto> dtos
+    ) {
+        if (dtos.isEmpty() || dtos.size() > batchProperties.maxSize()) {
+            throw new IllegalArgumentException("Batch must contain between 1 and " + batchProperties.maxSize() + " offers");
+        }
+
+        OfferBatchItemDto[] items = new OfferBatchItemDto[dtos.size()];
+        List<OfferCreateDto> valid = new ArrayList<>(dtos.size());
+        List<Integer> validIndexes = new ArrayList<>(dtos.size());
+
+        for (int i = 0; i < dtos.size(); i++) {
+            OfferCreateDto dto = dtos.get(i);
+            Map<String, String> errors = validate(dto);
+            if (errors.isEmpty()) {
+                valid.add(dto);
+                validIndexes.add(i);
+            } else {
+                items[i] = new OfferBatchItemDto(i, null, errors);
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            List<Offer> created = service.createOffers(valid);
+            for (int j = 0; j < created.size(); j++) {
+                int index = validIndexes.get(j);
+                items[index] = new OfferBatchItemDto(index, created.get(j).getId(), null);
+            }
+        }
+
+        return ResponseEntity.ok(new OfferBatchResultDto(valid.size(), dtos.size() - valid.size(), Arrays.asList(items)));
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "List and search insurance offers",
+            description = "Returns offers ordered by id, filtered by personal number, status and creation date. " +
+                    "Pass the returned nextCursor as 'after' to fetch the next page; every page costs the same regardless of depth."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of offers",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = OfferPageDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid page size",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\": \"Limit must be between 1 and 500\"}")
+                    )
+            )
+    })
+    public ResponseEntity<OfferPageDto> searchOffers(
+            @Parameter(description = "Only offers for this personal number", example = "199010101234")
+            @RequestParam(required = false) String personalNumber,
+            @Parameter(description = "Only offers with this status", example = "PENDING")
+            @RequestParam(required = false) OfferStatus status,
+            @Parameter(description = "Only offers created at or after this time", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Only offers created before this time", example = "2025-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Cursor from the previous page (exclusive offer id)", example = "0")
+            @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Page size", example = "50")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Include loan amounts in each item")
+            @RequestParam(defaultValue = "false") boolean includeLoans
+    ) {
+        OfferSearchCriteria criteria = new OfferSearchCriteria(personalNumber, status, createdFrom, createdTo);
+        return ResponseEntity.ok(service.searchOffers(criteria, after, limit, includeLoans));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+            summary = "Get an insurance offer",
+            description = "Returns the current state of an insurance offer with its version as a strong ETag. " +
+                    "Answers 304 when If-None-Match carries the current ETag."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Offer found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = OfferDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Offer unchanged since the ETag in If-None-Match",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Offer not found",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\": \"Offer with ID 123 not found\"}")
+                    )
+            )
+    })
+    public ResponseEntity<Object> getOffer(
+            @Parameter(description = "Offer ID", required = true, example = "1")
+            @PathVariable Long id,
+            @Parameter(description = FIELDS_DESCRIPTION, example = "id,status,premium")
+            @RequestParam(required = false) String fields,
+            WebRequest request
+    ) {
+        Set<String> selected = OfferFields.parse(fields);
+        OfferDto offer = service.getOffer(id);
+        if (request.checkNotModified(etag(offer))) {
+            return null;
+        }
+        return ResponseEntity.ok(view(offer, selected));
+    }
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Update an existing insurance offer",
-            description = "Updates an existing insurance offer with new coverage amounts and monthly cost"
+            description = "Updates an existing insurance offer with new coverage amounts and monthly cost. " +
+                    "With If-Match the update only goes through if the offer still has that ETag."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -81,7 +255,7 @@ public class InsuranceController {
                     description = "Offer updated successfully",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = Offer.class)
+                            schema = @Schema(implementation = OfferDto.class)
                     )
             ),
             @ApiResponse(
@@ -99,21 +273,36 @@ public class InsuranceController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = Map.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Offer has changed since the ETag in If-Match",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\": \"Offer with id: 1 has changed since version 3\"}")
+                    )
             )
     })
-    public ResponseEntity<Offer> updateOffer(
+    public ResponseEntity<Object> updateOffer(
             @Parameter(description = "Offer ID", required = true, example = "1")
             @PathVariable Long id,
             @Parameter(description = "Updated offer data", required = true)
-            @Valid @RequestBody OfferCreateDto dto
+            @Valid @RequestBody OfferCreateDto dto,
+            @Parameter(description = FIELDS_DESCRIPTION, example = "id,premium,updatedTime")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "ETag from a previous GET; the update fails with 412 if the offer has changed since", example = "\"v3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return ResponseEntity.ok(service.updateOffer(id, dto));
+        Set<String> selected = OfferFields.parse(fields);
+        OfferDto offer = OfferDto.from(service.updateOffer(id, dto, expectedVersion(id, ifMatch)));
+        return ResponseEntity.ok().eTag(etag(offer)).body(view(offer, selected));
     }
 
     @PostMapping("/{id}/accept")
     @Operation(
             summary = "Accept an insurance offer",
-            description = "Changes the status of a pending insurance offer to accepted. Only pending offers can be accepted."
+            description = "Changes the status of a pending insurance offer to accepted. Only pending offers can be accepted. " +
+                    "Returns the id, status, premium and accepted date unless other fields are asked for."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -121,7 +310,7 @@ public class InsuranceController {
                     description = "Offer accepted successfully",
                     content = @Content(
                             mediaType = "application/json",
-                            schema = @Schema(implementation = Offer.class)
+                            schema = @Schema(implementation = OfferStatusDto.class)
                     )
             ),
             @ApiResponse(
@@ -149,11 +338,90 @@ public class InsuranceController {
                     )
             )
     })
-    public ResponseEntity<Offer> acceptOffer(
+    public ResponseEntity<Object> acceptOffer(
             @Parameter(description = "Offer ID to accept", required = true, example = "1")
-            @PathVariable Long id
+            @PathVariable Long id,
+            @Parameter(description = FIELDS_DESCRIPTION, example = "id,status")
+            @RequestParam(required = false) String fields
     ) {
-        return ResponseEntity.ok().body(service.acceptOffer(id));
+        Set<String> selected = OfferFields.parse(fields);
+        Offer accepted = service.acceptOffer(id);
+        return ResponseEntity.ok().body(selected == null ? OfferStatusDto.from(accepted) : OfferFields.select(OfferDto.from(accepted), selected));
+    }
+
+    private static String etag(OfferDto offer) {
+        return offer.version() == null ? "\"archived\"" : "\"v" + offer.version() + "\"";
+    }
+
+    // "*" or no If-Match updates any version; otherwise only the single strong ETag handed out for the offer.
+    private static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 3 && tag.startsWith("\"v") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(2, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the mismatch below
+            }
+        }
+        throw new PreconditionFailedException("Offer with id: " + id + " does not match If-Match " + tag);
+    }
+
+    @PostMapping("/accept")
+    @Operation(
+            summary = "Accept insurance offers in bulk",
+            description = "Accepts every pending, unexpired offer in the list in one transaction, with the same rules as " +
+                    "the single accept. Returns accepted, not found, conflict (already accepted) or expired for each id, " +
+                    "in request order."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = OfferAcceptResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "List is empty, too large or contains null",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(value = "{\"error\": \"Batch must contain between 1 and 5000 offers\"}")
+                    )
+            )
+    })
+    public ResponseEntity<OfferAcceptResultDto> acceptOffers(
+            @Parameter(description = "Ids of the offers to accept", required = true)
+            @RequestBody List<Long> ids
+    ) {
+        if (ids.isEmpty() || ids.size() > batchProperties.maxSize()) {
+            throw new IllegalArgumentException("Batch must contain between 1 and " + batchProperties.maxSize() + " offers");
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Offer ids must not be null");
+        }
+        return ResponseEntity.ok(service.acceptOffers(ids));
+    }
+
+    // The whole offer, or only the fields the caller asked for.
+    private static Object view(OfferDto offer, Set<String> fields) {
+        return fields == null ? offer : OfferFields.select(offer, fields);
+    }
+
+    private Map<String, String> validate(OfferCreateDto dto) {
+        Map<String, String> errors = new HashMap<>();
+        if (dto == null) {
+            errors.put("offer", "Offer cannot be null");
+            return errors;
+        }
+        for (ConstraintViolation<OfferCreateDto> violation : validator.validate(dto)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,51 @@
+package org.example.insuranceapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.insuranceapi.dto.OfferEventDto;
+import org.example.insuranceapi.service.OfferEventStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/offers/events")
+@Tag(name = "Offer Events", description = "Stream of offer state changes")
+public class OfferEventController {
+
+    private final OfferEventStream stream;
+
+    @Autowired
+    public OfferEventController(OfferEventStream stream) {
+        this.stream = stream;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Subscribe to offer events",
+            description = "Server-Sent Events stream of created, updated, accepted and expired offers. " +
+                    "Reconnect with Last-Event-ID to replay missed events; a 'gap' event means some were no longer buffered."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream",
+                    content = @Content(
+                            mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = OfferEventDto.class)
+                    )
+            )
+    })
+    public SseEmitter subscribe(
+            @Parameter(description = "Id of the last event received; replay starts after it")
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return stream.subscribe(lastEventId);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.insuranceapi.controller;
+
+import jakarta.validation.Valid;
+import org.example.insuranceapi.dto.RateTableDto;
+import org.example.insuranceapi.service.PricingEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@RestController
+@RequestMapping("/api/v1/pricing")
+@Tag(name = "Pricing", description = "Premium rate table API")
+public class PricingController {
+
+    private final PricingEngine pricingEngine;
+
+    @Autowired
+    public PricingController(PricingEngine pricingEngine) {
+        this.pricingEngine = pricingEngine;
+    }
+
+    @GetMapping("/rate-table")
+    @Operation(
+            summary = "Get the active rate table",
+            description = "Returns the loan bands and age factors currently used to price offers."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Rate table retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = RateTableDto.class)
+                    )
+            ),
+    })
+    public ResponseEntity<RateTableDto> getRateTable() {
+        return ResponseEntity.ok(pricingEngine.rateTable());
+    }
+
+    @PutMapping("/rate-table")
+    @Operation(
+            summary = "Replace the rate table",
+            description = "Compiles and activates a new rate table. Offers already being priced finish on the previous table; " +
+                    "existing offers keep their premium until they are updated."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Rate table replaced",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = RateTableDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid rate table",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<RateTableDto> replaceRateTable(@Valid @RequestBody RateTableDto rateTable) {
+        pricingEngine.replaceRateTable(rateTable);
+        return ResponseEntity.ok(pricingEngine.rateTable());
+    }
+}
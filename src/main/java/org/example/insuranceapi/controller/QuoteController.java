@@ -0,0 +1,74 @@
+package org.example.insuranceapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.QuoteDto;
+import org.example.insuranceapi.service.QuoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/quotes")
+@Tag(name = "Quotes", description = "Premium preview without creating an offer")
+public class QuoteController {
+
+    private final QuoteService service;
+
+    @Autowired
+    public QuoteController(QuoteService service) {
+        this.service = service;
+    }
+
+    @PostMapping
+    @Operation(
+            summary = "Preview the premium for an offer",
+            description = "Validates the offer and returns its premium. Nothing is stored, so quotes never expire or count towards statistics."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Premium calculated",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = QuoteDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid input data",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = Map.class)
+                    )
+            )
+    })
+    public ResponseEntity<QuoteDto> quote(@Valid @RequestBody OfferCreateDto dto) {
+        return ResponseEntity.ok(service.quote(dto));
+    }
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    @Operation(hidden = true)
+    public Map<String, String> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        Map<String, String> errors = new HashMap<>();
+        ex.getBindingResult().getAllErrors().forEach((error) -> {
+            String fieldName = ((FieldError) error).getField();
+            String errorMessage = error.getDefaultMessage();
+            errors.put(fieldName, errorMessage);
+        });
+        return errors;
+    }
+}
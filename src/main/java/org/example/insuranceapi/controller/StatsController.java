@@ -1,10 +1,17 @@
 package org.example.insuranceapi.controller;
 
+import org.example.insuranceapi.dto.CacheStatsDto;
 import org.example.insuranceapi.dto.ConversionStatsDto;
+import org.example.insuranceapi.dto.DailyStatsDto;
+import org.example.insuranceapi.dto.StatsConsistencyDto;
+import org.example.insuranceapi.service.OfferCache;
+import org.example.insuranceapi.service.QuoteService;
 import org.example.insuranceapi.service.StatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,23 +21,30 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/v1/stats")
 @Tag(name = "Statistics", description = "Insurance conversion statistics API")
 public class StatsController {
 
     private final StatsService service;
+    private final OfferCache offerCache;
+    private final QuoteService quoteService;
 
     @Autowired
-    public StatsController(StatsService service) {
+    public StatsController(StatsService service, OfferCache offerCache, QuoteService quoteService) {
         this.service = service;
+        this.offerCache = offerCache;
+        this.quoteService = quoteService;
     }
 
     @GetMapping("/conversion")
     @Operation(
             summary = "Get conversion statistics",
             description = "Retrieves insurance conversion statistics for the specified number of days. " +
-                    "Returns metrics like conversion rate, total leads, successful conversions, etc."
+                    "Returns metrics like conversion rate, total leads, successful conversions, etc. " +
+                    "Answers 304 without recomputing when If-None-Match carries the current ETag."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -41,15 +55,128 @@ public class StatsController {
                             schema = @Schema(implementation = ConversionStatsDto.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "No offer has changed since the ETag in If-None-Match",
+                    content = @Content
+            ),
     })
     public ResponseEntity<ConversionStatsDto> getConversionStats(
             @Parameter(
-                    description = "Number of days to calculate statistics for",
+                    description = "Number of days to calculate statistics for; windows over 365 days are read from the daily rollups",
+                    example = "30",
+                    schema = @Schema(minimum = "1", defaultValue = "30")
+            )
+            @RequestParam(defaultValue = "30") int days,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(service.version())) {
+            return null;
+        }
+        return ResponseEntity.ok(service.getConversionStats(days));
+    }
+
+    @GetMapping("/daily")
+    @Operation(
+            summary = "Get offer totals for a date range",
+            description = "Sums created, accepted and expired offers and their premiums over an inclusive date range. " +
+                    "Complete days are read from the daily rollup table, only today is counted from the offers. " +
+                    "Answers 304 when If-None-Match carries the current ETag."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Totals retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = DailyStatsDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "No offer has changed since the ETag in If-None-Match",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "From is after to",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<DailyStatsDto> getDailyStats(
+            @Parameter(description = "First day, inclusive", example = "2023-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive", example = "2025-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(service.version())) {
+            return null;
+        }
+        return ResponseEntity.ok(service.getDailyStats(from, to));
+    }
+
+    @GetMapping("/conversion/consistency")
+    @Operation(
+            summary = "Verify conversion statistics",
+            description = "Compares the incrementally maintained conversion statistics with a scan of the offers table."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Consistency check completed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = StatsConsistencyDto.class)
+                    )
+            ),
+    })
+    public ResponseEntity<StatsConsistencyDto> checkConversionStats(
+            @Parameter(
+                    description = "Number of days to compare statistics for",
                     example = "30",
                     schema = @Schema(minimum = "1", maximum = "365", defaultValue = "30")
             )
             @RequestParam(defaultValue = "30") int days
     ) {
-        return ResponseEntity.ok(service.getConversionStats(days));
+        return ResponseEntity.ok(service.checkConsistency(days));
+    }
+
+    @GetMapping("/cache")
+    @Operation(
+            summary = "Get offer cache statistics",
+            description = "Returns size, hit, miss and eviction counters of the in-process offer cache."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Cache statistics retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CacheStatsDto.class)
+                    )
+            ),
+    })
+    public ResponseEntity<CacheStatsDto> getCacheStats() {
+        return ResponseEntity.ok(offerCache.stats());
+    }
+
+    @GetMapping("/quote-cache")
+    @Operation(
+            summary = "Get quote cache statistics",
+            description = "Returns size, hit, miss and eviction counters of the memoised quote cache."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Cache statistics retrieved successfully",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = CacheStatsDto.class)
+                    )
+            ),
+    })
+    public ResponseEntity<CacheStatsDto> getQuoteCacheStats() {
+        return ResponseEntity.ok(quoteService.stats());
     }
-}
\ No newline at end of file
+}
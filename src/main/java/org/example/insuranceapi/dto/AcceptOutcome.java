@@ -0,0 +1,8 @@
+package org.example.insuranceapi.dto;
+
+public enum AcceptOutcome {
+    ACCEPTED,
+    NOT_FOUND,
+    CONFLICT,
+    EXPIRED,
+}
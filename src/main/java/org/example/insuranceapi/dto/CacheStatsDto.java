@@ -0,0 +1,3 @@
+package org.example.insuranceapi.dto;
+
+public record CacheStatsDto(long size, long hits, long misses, long evictions, double hitRatePercentage) {}
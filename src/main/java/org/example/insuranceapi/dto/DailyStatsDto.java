@@ -0,0 +1,12 @@
+package org.example.insuranceapi.dto;
+
+import java.time.LocalDate;
+
+public record DailyStatsDto(LocalDate from,
+                            LocalDate to,
+                            long created,
+                            long accepted,
+                            long expired,
+                            double premiumCreated,
+                            double premiumAccepted,
+                            double conversionRate) {}
@@ -0,0 +1,5 @@
+package org.example.insuranceapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public record OfferAcceptItemDto(long id, AcceptOutcome outcome, @JsonInclude(JsonInclude.Include.NON_NULL) String error) {}
@@ -0,0 +1,5 @@
+package org.example.insuranceapi.dto;
+
+import java.util.List;
+
+public record OfferAcceptResultDto(int accepted, int rejected, List<OfferAcceptItemDto> items) {}
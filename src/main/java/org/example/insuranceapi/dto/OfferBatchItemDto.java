@@ -0,0 +1,5 @@
+package org.example.insuranceapi.dto;
+
+import java.util.Map;
+
+public record OfferBatchItemDto(int index, Long id, Map<String, String> errors) {}
@@ -0,0 +1,48 @@
+package org.example.insuranceapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.example.insuranceapi.model.ArchivedOffer;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OfferDto(long id,
+                       String personalNumber,
+                       List<Double> loans,
+                       double monthlyAmount,
+                       double premium,
+                       OfferStatus status,
+                       LocalDateTime createdDate,
+                       LocalDateTime updatedTime,
+                       LocalDateTime acceptedDate,
+                       // Entity version behind the offer's ETag; null for archived offers, which never change.
+                       @JsonIgnore Long version) {
+
+    public static OfferDto from(Offer offer) {
+        return new OfferDto(offer.getId(),
+                offer.getPersonalNumber(),
+                offer.getLoans(),
+                offer.getMonthlyAmount(),
+                offer.getPremium(),
+                offer.getStatus(),
+                offer.getCreatedDate(),
+                offer.getUpdatedTime(),
+                offer.getAcceptedDate(),
+                offer.getVersion());
+    }
+
+    public static OfferDto from(ArchivedOffer offer) {
+        return new OfferDto(offer.getId(),
+                offer.getPersonalNumber(),
+                offer.getLoans(),
+                offer.getMonthlyAmount(),
+                offer.getPremium(),
+                offer.getStatus(),
+                offer.getCreatedDate(),
+                offer.getUpdatedTime(),
+                offer.getAcceptedDate(),
+                null);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.insuranceapi.dto;
+
+import org.example.insuranceapi.event.OfferEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the offer event stream. {@code offer} is the state after the change, or {@code null} for EXPIRED.
+ */
+public record OfferEventDto(String eventId, OfferEventType type, long offerId, LocalDateTime occurredAt, OfferDto offer) {}
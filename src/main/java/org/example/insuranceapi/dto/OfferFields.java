@@ -0,0 +1,63 @@
+package org.example.insuranceapi.dto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Sparse field sets for offer responses ({@code ?fields=id,status,premium}). Selected fields are copied into a
+ * map through plain accessors, in the order of {@link OfferDto}, so Jackson only writes a flat map.
+ */
+public final class OfferFields {
+
+    private static final Map<String, Function<OfferDto, Object>> ACCESSORS = new LinkedHashMap<>();
+
+    static {
+        ACCESSORS.put("id", OfferDto::id);
+        ACCESSORS.put("personalNumber", OfferDto::personalNumber);
+        ACCESSORS.put("loans", OfferDto::loans);
+        ACCESSORS.put("monthlyAmount", OfferDto::monthlyAmount);
+        ACCESSORS.put("premium", OfferDto::premium);
+        ACCESSORS.put("status", OfferDto::status);
+        ACCESSORS.put("createdDate", OfferDto::createdDate);
+        ACCESSORS.put("updatedTime", OfferDto::updatedTime);
+        ACCESSORS.put("acceptedDate", OfferDto::acceptedDate);
+    }
+
+    private OfferFields() {
+    }
+
+    /**
+     * Parses a comma-separated field list.
+     *
+     * @return the requested fields, or {@code null} for all of them when {@code fields} is null or blank
+     * @throws IllegalArgumentException for an unknown field name
+     */
+    public static Set<String> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!ACCESSORS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected any of " + ACCESSORS.keySet());
+            }
+            selected.add(name);
+        }
+        return Collections.unmodifiableSet(selected);
+    }
+
+    public static Map<String, Object> select(OfferDto offer, Set<String> fields) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        ACCESSORS.forEach((name, accessor) -> {
+            if (fields.contains(name)) {
+                selected.put(name, accessor.apply(offer));
+            }
+        });
+        return selected;
+    }
+}
@@ -0,0 +1,5 @@
+package org.example.insuranceapi.dto;
+
+import java.util.List;
+
+public record OfferPageDto(List<OfferSummaryDto> items, Long nextCursor) {}
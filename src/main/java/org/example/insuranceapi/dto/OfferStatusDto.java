@@ -0,0 +1,16 @@
+package org.example.insuranceapi.dto;
+
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response of {@code POST /api/v1/offers/{id}/accept}: the outcome of the state change without the loans.
+ */
+public record OfferStatusDto(long id, OfferStatus status, double premium, LocalDateTime acceptedDate) {
+
+    public static OfferStatusDto from(Offer offer) {
+        return new OfferStatusDto(offer.getId(), offer.getStatus(), offer.getPremium(), offer.getAcceptedDate());
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.insuranceapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.insuranceapi.model.OfferStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record OfferSummaryDto(long id,
+                              String personalNumber,
+                              double monthlyAmount,
+                              double premium,
+                              OfferStatus status,
+                              LocalDateTime createdDate,
+                              LocalDateTime acceptedDate,
+                              @JsonInclude(JsonInclude.Include.NON_NULL) List<Double> loans) {
+
+    public OfferSummaryDto(long id, String personalNumber, double monthlyAmount, double premium, OfferStatus status,
+                           LocalDateTime createdDate, LocalDateTime acceptedDate) {
+        this(id, personalNumber, monthlyAmount, premium, status, createdDate, acceptedDate, null);
+    }
+
+    public OfferSummaryDto withLoans(List<Double> loans) {
+        return new OfferSummaryDto(id, personalNumber, monthlyAmount, premium, status, createdDate, acceptedDate, loans);
+    }
+}
@@ -0,0 +1,3 @@
+package org.example.insuranceapi.dto;
+
+public record QuoteDto(double premium, double insuredAmount) {}
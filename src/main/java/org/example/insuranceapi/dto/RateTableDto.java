@@ -0,0 +1,26 @@
+package org.example.insuranceapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+
+public record RateTableDto(
+
+        @NotNull(message = "Loan bands are required") @NotEmpty(message = "At least one loan band is required") List<@Valid LoanBand> loanBands,
+
+        List<@Valid AgeBand> ageBands
+
+) {
+
+    public record LoanBand(@Positive(message = "Band limit must be positive") Double upTo,
+                           @NotNull(message = "Rate is required") @PositiveOrZero(message = "Rate cannot be negative") Double rate) {
+    }
+
+    public record AgeBand(@NotNull(message = "From age is required") @PositiveOrZero(message = "From age cannot be negative") Integer fromAge,
+                          @NotNull(message = "Factor is required") @Positive(message = "Factor must be positive") Double factor) {
+    }
+}
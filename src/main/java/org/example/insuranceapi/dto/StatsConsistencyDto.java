@@ -0,0 +1,8 @@
+package org.example.insuranceapi.dto;
+
+public record StatsConsistencyDto(int days,
+                                  ConversionStatsDto engine,
+                                  ConversionStatsDto scan,
+                                  long engineCreatedWithinXDays,
+                                  long scanCreatedWithinXDays,
+                                  boolean consistent) {}
@@ -0,0 +1,12 @@
+package org.example.insuranceapi.event;
+
+import org.example.insuranceapi.dto.OfferDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by {@code InsuranceService} after every offer mutation. {@code offer} is the state after the
+ * change, or {@code null} when the change was applied as a bulk update (expiry).
+ */
+public record OfferEvent(OfferEventType type, long offerId, LocalDateTime createdDate, LocalDateTime occurredAt, OfferDto offer) {
+}
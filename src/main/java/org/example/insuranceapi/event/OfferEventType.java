@@ -0,0 +1,8 @@
+package org.example.insuranceapi.event;
+
+public enum OfferEventType {
+    CREATED,
+    UPDATED,
+    ACCEPTED,
+    EXPIRED,
+}
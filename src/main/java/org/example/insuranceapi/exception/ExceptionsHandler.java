@@ -2,6 +2,7 @@ package org.example.insuranceapi.exception;
 
 
 import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,7 +22,7 @@ public class ExceptionsHandler extends ResponseEntityExceptionHandler {
                 request);
     }
 
-    @ExceptionHandler(ConflictException.class)
+    @ExceptionHandler({ConflictException.class, ObjectOptimisticLockingFailureException.class})
     protected ResponseEntity<Object> handleConflict(RuntimeException exception, WebRequest request) {
         return handleExceptionInternal(exception,
                 exception.getMessage(),
@@ -29,4 +30,33 @@ public class ExceptionsHandler extends ResponseEntityExceptionHandler {
                 HttpStatus.CONFLICT,
                 request);
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    protected ResponseEntity<Object> handlePreconditionFailed(RuntimeException exception, WebRequest request) {
+        return handleExceptionInternal(exception,
+                exception.getMessage(),
+                new HttpHeaders(),
+                HttpStatus.PRECONDITION_FAILED,
+                request);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    protected ResponseEntity<Object> handleBadRequest(RuntimeException exception, WebRequest request) {
+        return handleExceptionInternal(exception,
+                exception.getMessage(),
+                new HttpHeaders(),
+                HttpStatus.BAD_REQUEST,
+                request);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    protected ResponseEntity<Object> handleTooManyRequests(RuntimeException exception, WebRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return handleExceptionInternal(exception,
+                exception.getMessage(),
+                headers,
+                HttpStatus.TOO_MANY_REQUESTS,
+                request);
+    }
 }
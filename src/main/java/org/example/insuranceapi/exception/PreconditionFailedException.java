@@ -0,0 +1,8 @@
+package org.example.insuranceapi.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.insuranceapi.exception;
+
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
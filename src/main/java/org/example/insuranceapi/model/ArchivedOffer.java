@@ -0,0 +1,85 @@
+package org.example.insuranceapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An expired or accepted offer moved out of the live {@code offers} table by the archiver. Rows are written
+ * with a bulk insert-select and never change afterwards, so the entity is read-only.
+ */
+@Entity
+@Table(name = "offers_archive", indexes = {
+        @Index(name = "idx_offers_archive_personal_number_id", columnList = "personal_number, id"),
+        @Index(name = "idx_offers_archive_status_id", columnList = "status, id"),
+        @Index(name = "idx_offers_archive_created_date", columnList = "created_date"),
+        @Index(name = "idx_offers_archive_accepted_date", columnList = "accepted_date")
+})
+public class ArchivedOffer {
+    @Id
+    private long id;
+
+    @Column(nullable = false)
+    private String personalNumber;
+
+    @Convert(converter = LoanAmountsConverter.class)
+    @Column(name = "loans", length = Offer.MAX_LOANS * Double.BYTES)
+    private double[] loans = new double[0];
+    private double monthlyAmount;
+    private double premium;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OfferStatus status;
+    private LocalDateTime createdDate;
+    private LocalDateTime updatedTime;
+    private LocalDateTime acceptedDate;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedDate;
+
+    public ArchivedOffer() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getPersonalNumber() {
+        return personalNumber;
+    }
+
+    public List<Double> getLoans() {
+        return Arrays.stream(loans).boxed().toList();
+    }
+
+    public double getMonthlyAmount() {
+        return monthlyAmount;
+    }
+
+    public double getPremium() {
+        return premium;
+    }
+
+    public OfferStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedDate() {
+        return createdDate;
+    }
+
+    public LocalDateTime getUpdatedTime() {
+        return updatedTime;
+    }
+
+    public LocalDateTime getAcceptedDate() {
+        return acceptedDate;
+    }
+
+    public LocalDateTime getArchivedDate() {
+        return archivedDate;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.insuranceapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+/**
+ * Totals for one complete calendar day. {@code expired} counts offers whose validity ended that day without
+ * being accepted, i.e. offers created {@link Offer#EXPIRATION_DAYS} days earlier.
+ */
+@Entity
+@Table(name = "daily_offer_stats")
+public class DailyOfferStats {
+    @Id
+    @Column(name = "stats_day")
+    private LocalDate day;
+
+    private long created;
+    private long accepted;
+    private long expired;
+    private double premiumCreated;
+    private double premiumAccepted;
+
+    public DailyOfferStats(LocalDate day, long created, long accepted, long expired, double premiumCreated, double premiumAccepted) {
+        this.day = day;
+        this.created = created;
+        this.accepted = accepted;
+        this.expired = expired;
+        this.premiumCreated = premiumCreated;
+        this.premiumAccepted = premiumAccepted;
+    }
+
+    public DailyOfferStats() {
+    }
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public double getPremiumCreated() {
+        return premiumCreated;
+    }
+
+    public double getPremiumAccepted() {
+        return premiumAccepted;
+    }
+}
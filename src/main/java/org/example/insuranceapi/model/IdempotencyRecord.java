@@ -0,0 +1,70 @@
+package org.example.insuranceapi.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    @Column(nullable = false, length = 512)
+    private String fingerprint;
+
+    private int status;
+    private String location;
+    private String contentType;
+
+    @Lob
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord(String key, String fingerprint, int status, String location, String contentType, byte[] body,
+                             LocalDateTime createdAt) {
+        this.key = key;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.location = location;
+        this.contentType = contentType;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    public IdempotencyRecord() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
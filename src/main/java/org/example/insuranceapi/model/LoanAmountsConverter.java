@@ -0,0 +1,37 @@
+package org.example.insuranceapi.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Packs loan amounts into a single binary column as consecutive little-endian IEEE 754 doubles,
+ * replacing the old one-row-per-loan {@code offer_loans} table.
+ */
+@Converter
+public class LoanAmountsConverter implements AttributeConverter<double[], byte[]> {
+
+    public static byte[] pack(double[] loans) {
+        ByteBuffer buffer = ByteBuffer.allocate(loans.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asDoubleBuffer().put(loans);
+        return buffer.array();
+    }
+
+    public static double[] unpack(byte[] packed) {
+        double[] loans = new double[packed.length / Double.BYTES];
+        ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(loans);
+        return loans;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(double[] loans) {
+        return loans == null ? null : pack(loans);
+    }
+
+    @Override
+    public double[] convertToEntityAttribute(byte[] packed) {
+        return packed == null ? new double[0] : unpack(packed);
+    }
+}
@@ -1,29 +1,36 @@
 package org.example.insuranceapi.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import org.springframework.cglib.core.Local;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Entity
-@Table(name = "offers")
+@Table(name = "offers", indexes = {
+        @Index(name = "idx_offers_status_created_date", columnList = "status, created_date"),
+        @Index(name = "idx_offers_status_id", columnList = "status, id"),
+        @Index(name = "idx_offers_personal_number_id", columnList = "personal_number, id"),
+        @Index(name = "idx_offers_created_date_id", columnList = "created_date, id"),
+        @Index(name = "idx_offers_accepted_date", columnList = "accepted_date")
+})
 public class Offer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "offers_seq")
+    @SequenceGenerator(name = "offers_seq", sequenceName = "offers_seq", allocationSize = Offer.ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
     private String personalNumber;
 
-    @ElementCollection
-    @CollectionTable(name = "offer_loans", joinColumns = @JoinColumn(name = "offer_id"))
-    @Column(name = "loan_amount")
-    private List<Double> loans = new ArrayList<>();
+    @Convert(converter = LoanAmountsConverter.class)
+    @Column(name = "loans", length = MAX_LOANS * Double.BYTES)
+    private double[] loans = new double[0];
     private double monthlyAmount;
     private double premium;
 
@@ -33,13 +40,19 @@ public class Offer {
     private LocalDateTime updatedTime;
     private LocalDateTime acceptedDate;
 
-    private static final long EXPIRATION_DAYS = 30;
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public static final long EXPIRATION_DAYS = 30;
+    public static final int MAX_LOANS = 4096;
+    public static final int ID_ALLOCATION_SIZE = 50;
 
 
     public Offer(long id, String personalNumber, List<Double> loans, double monthlyAmount) {
         this.id = id;
         this.personalNumber = personalNumber;
-        this.loans = loans;
+        setLoans(loans);
         this.monthlyAmount = monthlyAmount;
     }
 
@@ -63,10 +76,19 @@ public class Offer {
     }
 
     public List<Double> getLoans() {
-        return loans;
+        return Arrays.stream(loans).boxed().toList();
     }
 
     public void setLoans(List<Double> loans) {
+        this.loans = loans.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    @JsonIgnore
+    public double[] getLoanAmounts() {
+        return loans;
+    }
+
+    public void setLoanAmounts(double[] loans) {
         this.loans = loans;
     }
 
@@ -118,6 +140,14 @@ public class Offer {
         this.acceptedDate = acceptedDate;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public boolean isExpired(LocalDateTime referenceTime) {
         return this.status == OfferStatus.PENDING && this.createdDate != null && this.createdDate.isBefore(referenceTime.minusDays(EXPIRATION_DAYS));
     }
@@ -0,0 +1,8 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.ArchivedOffer;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ArchivedOfferRepository extends OfferTierRepository<ArchivedOffer> {
+}
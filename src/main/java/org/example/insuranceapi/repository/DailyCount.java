@@ -0,0 +1,6 @@
+package org.example.insuranceapi.repository;
+
+import java.time.LocalDate;
+
+public record DailyCount(LocalDate day, long count) {
+}
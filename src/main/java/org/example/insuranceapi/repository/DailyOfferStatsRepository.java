@@ -0,0 +1,43 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.DailyOfferStats;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyOfferStatsRepository extends ListCrudRepository<DailyOfferStats, LocalDate> {
+
+    Optional<DailyOfferStats> findTopByOrderByDayDesc();
+
+    List<DailyOfferStats> findAllByOrderByDayAsc();
+
+    /**
+     * Writes the given days, replacing any already stored. Another node rolling up the same days at the same
+     * time computes the same totals, so the last write winning is harmless.
+     */
+    @Transactional
+    default void saveDays(List<DailyOfferStats> days) {
+        for (DailyOfferStats day : days) {
+            mergeDay(day.getDay(), day.getCreated(), day.getAccepted(), day.getExpired(), day.getPremiumCreated(),
+                    day.getPremiumAccepted());
+        }
+    }
+
+    @Modifying
+    @Query(value = "merge into daily_offer_stats (stats_day, created, accepted, expired, premium_created, premium_accepted) " +
+            "key (stats_day) values (:day, :created, :accepted, :expired, :premiumCreated, :premiumAccepted)",
+            nativeQuery = true)
+    int mergeDay(LocalDate day, long created, long accepted, long expired, double premiumCreated, double premiumAccepted);
+
+    @Transactional
+    @Modifying
+    @Query("delete from DailyOfferStats s")
+    int deleteAllDays();
+}
@@ -0,0 +1,6 @@
+package org.example.insuranceapi.repository;
+
+import java.time.LocalDate;
+
+public record DailyTotals(LocalDate day, long count, double premium) {
+}
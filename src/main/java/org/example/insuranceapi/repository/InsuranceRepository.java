@@ -2,10 +2,79 @@ package org.example.insuranceapi.repository;
 
 
 import org.example.insuranceapi.model.Offer;
-import org.springframework.data.repository.ListCrudRepository;
+import org.example.insuranceapi.model.OfferStatus;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 
 @Repository
-public interface InsuranceRepository extends ListCrudRepository<Offer, Long> {
+public interface InsuranceRepository extends OfferTierRepository<Offer>, OfferSearchRepository, OfferUpdateRepository {
+
+    @Query("select o.id from Offer o where o.status = :status and o.createdDate < :cutoff order by o.createdDate")
+    List<Long> findIdsByStatusCreatedBefore(OfferStatus status, LocalDateTime cutoff, Limit limit);
+
+    @Query("select o.id from Offer o where o.status = :status and o.createdDate < :cutoff and mod(o.id, :shards) = :shard " +
+            "order by o.createdDate")
+    List<Long> findIdsByStatusCreatedBeforeInShard(OfferStatus status, LocalDateTime cutoff, int shards, int shard, Limit limit);
+
+    @Query("select new org.example.insuranceapi.repository.PendingOffer(o.id, o.createdDate) from Offer o " +
+            "where o.status = org.example.insuranceapi.model.OfferStatus.PENDING and o.id > :afterId order by o.id")
+    List<PendingOffer> findPendingAfter(long afterId, Limit limit);
+
+    @Query("select new org.example.insuranceapi.repository.PendingOffer(o.id, o.createdDate) from Offer o " +
+            "where o.status = org.example.insuranceapi.model.OfferStatus.PENDING and mod(o.id, :shards) in :owned " +
+            "and o.id > :afterId order by o.id")
+    List<PendingOffer> findPendingInShardsAfter(int shards, Collection<Integer> owned, long afterId, Limit limit);
+
+    @Query(value = "select id from offers where id in :ids and status = 'PENDING' and created_date < :cutoff for update",
+            nativeQuery = true)
+    List<Long> lockExpirable(Collection<Long> ids, LocalDateTime cutoff);
+
+    /**
+     * Expires whichever of {@code ids} are still pending past {@code cutoff}. The rows are locked first, so the
+     * returned ids are exactly the offers this call expired, even with a concurrent accept or sweep.
+     */
+    @Transactional
+    default List<Long> expireDue(Collection<Long> ids, LocalDateTime cutoff) {
+        List<Long> expirable = lockExpirable(ids, cutoff);
+        if (!expirable.isEmpty()) {
+            expirePending(expirable, cutoff);
+        }
+        return expirable;
+    }
+
+    @Transactional
+    @Modifying
+    @Query("update Offer o set o.status = org.example.insuranceapi.model.OfferStatus.EXPIRED, o.personalNumber = '', " +
+            "o.version = o.version + 1 " +
+            "where o.id in :ids and o.status = org.example.insuranceapi.model.OfferStatus.PENDING and o.createdDate < :cutoff")
+    int expirePending(Collection<Long> ids, LocalDateTime cutoff);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new org.example.insuranceapi.repository.OfferState(o.id, o.status, o.createdDate) from Offer o " +
+            "where o.id in :ids")
+    List<OfferState> lockStates(Collection<Long> ids);
+
+    /**
+     * Locks the live offers among {@code ids} and accepts every one still pending at or after {@code cutoff}, with
+     * one select and one update. While the locks are held no one else can change the offers, so an offer was
+     * accepted exactly when its locked state was pending and created at or after {@code cutoff}.
+     */
+    @Transactional
+    default LockedAccept acceptAllPendingLocked(Collection<Long> ids, LocalDateTime acceptedDate, LocalDateTime cutoff) {
+        List<OfferState> locked = lockStates(ids);
+        if (locked.isEmpty()) {
+            return new LockedAccept(locked, List.of());
+        }
+        return new LockedAccept(locked, acceptAllPending(ids, acceptedDate, cutoff));
+    }
 }
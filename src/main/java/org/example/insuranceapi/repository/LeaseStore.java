@@ -0,0 +1,114 @@
+package org.example.insuranceapi.repository;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Shard leases in {@code sweep_leases} and node heartbeats in {@code sweep_nodes}. Every lease change is a
+ * compare-and-set against the row as it was read, so when two nodes race for the same shard exactly one
+ * update matches. Expiry times are set and compared with the database clock ({@code localtimestamp}), so
+ * nodes whose clocks disagree still agree on which leases have run out.
+ */
+@Component
+public class LeaseStore {
+
+    /**
+     * A lease as read, with {@code expired} judged by the database clock at the time of the read.
+     */
+    public record Lease(int shard, String owner, LocalDateTime expiresAt, boolean expired) {
+
+        public boolean heldBy(String node) {
+            return node.equals(owner) && !expired;
+        }
+
+        public boolean isFree() {
+            return owner == null || expired;
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public LeaseStore(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @return the leases for shards {@code 0..shards-1}, creating unowned rows for shards seen for the first time
+     */
+    public List<Lease> findAll(String name, int shards) {
+        List<Lease> leases = select(name, shards);
+        if (leases.size() < shards) {
+            for (int shard = 0; shard < shards; shard++) {
+                try {
+                    jdbc.update("insert into sweep_leases (lease_name, shard, owner, expires_at) values (?, ?, null, localtimestamp)",
+                            name, shard);
+                } catch (DuplicateKeyException alreadyThere) {
+                    // Created earlier, or by another node just now.
+                }
+            }
+            leases = select(name, shards);
+        }
+        return leases;
+    }
+
+    /**
+     * Moves a lease from the state it was read in to the given owner, expiring {@code ttl} from now by the
+     * database clock; {@code owner} null releases it. A lease that has run out since it was read no longer
+     * matches, nor does one that was renewed.
+     *
+     * @return whether the lease was still in the expected state, and so now belongs to {@code owner}
+     */
+    public boolean compareAndSet(String name, Lease expected, String owner, Duration ttl) {
+        try {
+            return jdbc.update("""
+                            update sweep_leases set owner = ?, expires_at = dateadd('MILLISECOND', ?, localtimestamp)
+                            where lease_name = ? and shard = ? and expires_at = ? and coalesce(owner, '') = ?
+                              and (expires_at <= localtimestamp) = ?
+                            """,
+                    owner, ttl.toMillis(), name, expected.shard(), Timestamp.valueOf(expected.expiresAt()),
+                    expected.owner() == null ? "" : expected.owner(), expected.expired()) == 1;
+        } catch (DataAccessException concurrentUpdate) {
+            return false;
+        }
+    }
+
+    /**
+     * Records that {@code node} takes part for {@code ttl} from now and forgets nodes whose heartbeat has run
+     * out, both by the database clock.
+     *
+     * @return the nodes with a live heartbeat, including {@code node}
+     */
+    public List<String> heartbeat(String name, String node, Duration ttl) {
+        jdbc.update("delete from sweep_nodes where lease_name = ? and expires_at <= localtimestamp", name);
+        if (jdbc.update("update sweep_nodes set expires_at = dateadd('MILLISECOND', ?, localtimestamp) where lease_name = ? and node_id = ?",
+                ttl.toMillis(), name, node) == 0) {
+            try {
+                jdbc.update("insert into sweep_nodes (lease_name, node_id, expires_at) values (?, ?, dateadd('MILLISECOND', ?, localtimestamp))",
+                        name, node, ttl.toMillis());
+            } catch (DuplicateKeyException alreadyThere) {
+                // A previous tick of this node is still being committed.
+            }
+        }
+        return jdbc.queryForList("select node_id from sweep_nodes where lease_name = ? order by node_id", String.class, name);
+    }
+
+    public void leave(String name, String node) {
+        jdbc.update("delete from sweep_nodes where lease_name = ? and node_id = ?", name, node);
+    }
+
+    private List<Lease> select(String name, int shards) {
+        return jdbc.query("""
+                        select shard, owner, expires_at, expires_at <= localtimestamp
+                        from sweep_leases where lease_name = ? and shard < ? order by shard
+                        """,
+                (rs, row) -> new Lease(rs.getInt(1), rs.getString(2), rs.getTimestamp(3).toLocalDateTime(), rs.getBoolean(4)),
+                name, shards);
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.Offer;
+
+import java.util.List;
+
+/**
+ * The outcome of {@link InsuranceRepository#acceptAllPendingLocked}: the live offers as they were when locked, and
+ * the ones it accepted as the update left them.
+ */
+public record LockedAccept(List<OfferState> locked, List<Offer> accepted) {
+}
@@ -0,0 +1,57 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.OfferStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Moves offers from {@code offers} into {@code offers_archive} with an insert-select and a delete, so rows
+ * never pass through the application.
+ */
+@Component
+public class OfferArchiveWriter {
+
+    private static final String COLUMNS =
+            "id, personal_number, loans, monthly_amount, premium, status, created_date, updated_time, accepted_date";
+
+    private final JdbcTemplate jdbc;
+
+    public OfferArchiveWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Archives up to {@code limit} of the oldest offers in the given state that reached it before the cutoff:
+     * accepted offers by their accepted date, expired offers by their created date, as an offer expires a fixed
+     * time after it was created. The rows are locked first, so an offer cannot change between being copied and
+     * being deleted.
+     *
+     * @return the number of offers moved
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int moveBatch(OfferStatus status, LocalDateTime before, LocalDateTime archivedAt, int limit) {
+        String age = status == OfferStatus.ACCEPTED ? "accepted_date" : "created_date";
+        List<Long> ids = jdbc.queryForList(
+                "select id from offers where status = ? and " + age + " < ? order by " + age + " limit ? for update",
+                Long.class, status.name(), Timestamp.valueOf(before), limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(Timestamp.valueOf(archivedAt));
+        args.addAll(ids);
+        jdbc.update("insert into offers_archive (" + COLUMNS + ", archived_date) " +
+                "select " + COLUMNS + ", ? from offers where id in (" + in + ")", args.toArray());
+        return jdbc.update("delete from offers where id in (" + in + ")", ids.toArray());
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.LoanAmountsConverter;
+import org.example.insuranceapi.model.Offer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts offers that already carry an id with one JDBC batch, bypassing the persistence context.
+ */
+@Component
+public class OfferBulkWriter {
+
+    private static final String INSERT = """
+            insert into offers (id, personal_number, loans, monthly_amount, premium, status, created_date, version)
+            values (?, ?, ?, ?, ?, ?, ?, 0)
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public OfferBulkWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void insert(List<Offer> offers) {
+        jdbc.batchUpdate(INSERT, offers, offers.size(), (ps, offer) -> {
+            ps.setLong(1, offer.getId());
+            ps.setString(2, offer.getPersonalNumber());
+            ps.setBytes(3, LoanAmountsConverter.pack(offer.getLoanAmounts()));
+            ps.setDouble(4, offer.getMonthlyAmount());
+            ps.setDouble(5, offer.getPremium());
+            ps.setString(6, offer.getStatus().name());
+            ps.setTimestamp(7, Timestamp.valueOf(offer.getCreatedDate()));
+        });
+    }
+}
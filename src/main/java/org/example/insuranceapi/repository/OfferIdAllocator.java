@@ -0,0 +1,32 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.Offer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out offer ids without a round trip per offer, following the same pooled scheme Hibernate uses for
+ * {@code offers_seq}: each sequence value {@code v} reserves the block {@code v - allocationSize + 1 .. v}
+ * (just {@code 1} for the initial value), so ids taken here never collide with ids Hibernate assigns.
+ */
+@Component
+public class OfferIdAllocator {
+
+    private final JdbcTemplate jdbc;
+
+    private long next;
+    private long last = -1;
+
+    public OfferIdAllocator(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public synchronized long nextId() {
+        if (next > last) {
+            long value = jdbc.queryForObject("select next value for offers_seq", Long.class);
+            last = value;
+            next = Math.max(1, value - Offer.ID_ALLOCATION_SIZE + 1);
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.OfferStatus;
+
+import java.time.LocalDateTime;
+
+public record OfferSearchCriteria(String personalNumber, OfferStatus status, LocalDateTime createdFrom, LocalDateTime createdTo) {
+}
@@ -0,0 +1,13 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.dto.OfferSummaryDto;
+
+import java.util.List;
+import java.util.Map;
+
+public interface OfferSearchRepository {
+
+    List<OfferSummaryDto> searchAfter(OfferSearchCriteria criteria, long afterId, int limit);
+
+    Map<Long, double[]> findLoansByIds(List<Long> ids);
+}
@@ -0,0 +1,104 @@
+package org.example.insuranceapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.example.insuranceapi.dto.OfferSummaryDto;
+import org.example.insuranceapi.model.OfferStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class OfferSearchRepositoryImpl implements OfferSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Ids come from one sequence, so a page is the first `limit` ids of the live and archived pages merged.
+    @Override
+    public List<OfferSummaryDto> searchAfter(OfferSearchCriteria criteria, long afterId, int limit) {
+        List<OfferSummaryDto> live = searchAfter("Offer", criteria, afterId, limit);
+        if (criteria.status() == OfferStatus.PENDING) {
+            return live;
+        }
+        List<OfferSummaryDto> archived = searchAfter("ArchivedOffer", criteria, afterId, limit);
+        if (archived.isEmpty()) {
+            return live;
+        }
+
+        List<OfferSummaryDto> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (j == archived.size() || (i < live.size() && live.get(i).id() < archived.get(j).id())) {
+                merged.add(live.get(i++));
+            } else {
+                // An offer archived between the two queries is in both; the archived copy is the later one.
+                if (i < live.size() && live.get(i).id() == archived.get(j).id()) {
+                    i++;
+                }
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    // Keyset pagination: only "id > afterId" plus the active filters, so every page is an index range scan.
+    private List<OfferSummaryDto> searchAfter(String entity, OfferSearchCriteria criteria, long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("select new org.example.insuranceapi.dto.OfferSummaryDto(" +
+                "o.id, o.personalNumber, o.monthlyAmount, o.premium, o.status, o.createdDate, o.acceptedDate) " +
+                "from " + entity + " o where o.id > :afterId");
+        if (criteria.personalNumber() != null) {
+            jpql.append(" and o.personalNumber = :personalNumber");
+        }
+        if (criteria.status() != null) {
+            jpql.append(" and o.status = :status");
+        }
+        if (criteria.createdFrom() != null) {
+            jpql.append(" and o.createdDate >= :createdFrom");
+        }
+        if (criteria.createdTo() != null) {
+            jpql.append(" and o.createdDate < :createdTo");
+        }
+        jpql.append(" order by o.id");
+
+        TypedQuery<OfferSummaryDto> query = entityManager.createQuery(jpql.toString(), OfferSummaryDto.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        if (criteria.personalNumber() != null) {
+            query.setParameter("personalNumber", criteria.personalNumber());
+        }
+        if (criteria.status() != null) {
+            query.setParameter("status", criteria.status());
+        }
+        if (criteria.createdFrom() != null) {
+            query.setParameter("createdFrom", criteria.createdFrom());
+        }
+        if (criteria.createdTo() != null) {
+            query.setParameter("createdTo", criteria.createdTo());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Map<Long, double[]> findLoansByIds(List<Long> ids) {
+        Map<Long, double[]> loans = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) {
+            return loans;
+        }
+        findLoans("Offer", ids, loans);
+        if (loans.size() < ids.size()) {
+            findLoans("ArchivedOffer", ids.stream().filter(id -> !loans.containsKey(id)).toList(), loans);
+        }
+        return loans;
+    }
+
+    private void findLoans(String entity, List<Long> ids, Map<Long, double[]> loans) {
+        entityManager.createQuery("select o.id, o.loans from " + entity + " o where o.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultList()
+                .forEach(row -> loans.put((Long) row[0], (double[]) row[1]));
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.OfferStatus;
+
+import java.time.LocalDateTime;
+
+public record OfferState(long id, OfferStatus status, LocalDateTime createdDate) {
+}
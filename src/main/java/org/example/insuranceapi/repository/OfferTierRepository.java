@@ -0,0 +1,44 @@
+package org.example.insuranceapi.repository;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stats queries shared by the live {@code offers} table and {@code offers_archive}. Callers run them against
+ * both tiers and add the results up.
+ */
+@NoRepositoryBean
+public interface OfferTierRepository<T> extends ListCrudRepository<T, Long> {
+
+    @Query("select new org.example.insuranceapi.repository.DailyCount(cast(o.createdDate as LocalDate), count(o)) " +
+            "from #{#entityName} o where o.createdDate >= :since group by cast(o.createdDate as LocalDate)")
+    List<DailyCount> countCreatedPerDaySince(LocalDateTime since);
+
+    @Query("select new org.example.insuranceapi.repository.DailyCount(cast(o.acceptedDate as LocalDate), count(o)) " +
+            "from #{#entityName} o where o.acceptedDate >= :since group by cast(o.acceptedDate as LocalDate)")
+    List<DailyCount> countAcceptedPerDaySince(LocalDateTime since);
+
+    @Query("select new org.example.insuranceapi.repository.DailyTotals(cast(o.createdDate as LocalDate), count(o), coalesce(sum(o.premium), 0)) " +
+            "from #{#entityName} o where o.createdDate >= :from and o.createdDate < :to group by cast(o.createdDate as LocalDate)")
+    List<DailyTotals> sumCreatedPerDay(LocalDateTime from, LocalDateTime to);
+
+    @Query("select new org.example.insuranceapi.repository.DailyTotals(cast(o.acceptedDate as LocalDate), count(o), coalesce(sum(o.premium), 0)) " +
+            "from #{#entityName} o where o.acceptedDate >= :from and o.acceptedDate < :to group by cast(o.acceptedDate as LocalDate)")
+    List<DailyTotals> sumAcceptedPerDay(LocalDateTime from, LocalDateTime to);
+
+    @Query("select new org.example.insuranceapi.repository.DailyTotals(cast(o.createdDate as LocalDate), count(o), coalesce(sum(o.premium), 0)) " +
+            "from #{#entityName} o where o.createdDate >= :from and o.createdDate < :to " +
+            "and o.status <> org.example.insuranceapi.model.OfferStatus.ACCEPTED group by cast(o.createdDate as LocalDate)")
+    List<DailyTotals> sumUnacceptedCreatedPerDay(LocalDateTime from, LocalDateTime to);
+
+    @Query("select min(o.createdDate) from #{#entityName} o")
+    LocalDateTime findEarliestCreatedDate();
+
+    long countByCreatedDateGreaterThanEqual(LocalDateTime since);
+
+    long countByAcceptedDateGreaterThanEqual(LocalDateTime since);
+}
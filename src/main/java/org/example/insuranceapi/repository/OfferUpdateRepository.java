@@ -0,0 +1,32 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.Offer;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Conditional single-statement updates that return the offer as the update left it, so callers need no second
+ * read and no check-then-write window.
+ */
+public interface OfferUpdateRepository {
+
+    /**
+     * Accepts the offer if it is still pending and created at or after {@code cutoff}. Empty if the offer was not
+     * updated.
+     */
+    Optional<Offer> acceptPending(long id, LocalDateTime acceptedDate, LocalDateTime cutoff);
+
+    /**
+     * Accepts those of {@code ids} that are still pending and created at or after {@code cutoff}, and returns them.
+     */
+    List<Offer> acceptAllPending(Collection<Long> ids, LocalDateTime acceptedDate, LocalDateTime cutoff);
+
+    /**
+     * Writes the personal number, loans, monthly amount, premium and updated time of {@code changes} to the offer
+     * if its version is still {@code expectedVersion}. Empty if the offer was not updated.
+     */
+    Optional<Offer> updateIfVersion(long id, long expectedVersion, Offer changes);
+}
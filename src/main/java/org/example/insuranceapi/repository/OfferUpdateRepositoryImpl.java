@@ -0,0 +1,116 @@
+package org.example.insuranceapi.repository;
+
+import org.example.insuranceapi.model.LoanAmountsConverter;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+class OfferUpdateRepositoryImpl implements OfferUpdateRepository {
+
+    private static final String ACCEPT = """
+            update offers set status = 'ACCEPTED', accepted_date = ?, version = version + 1
+            where id = ? and status = 'PENDING' and created_date >= ?
+            """;
+
+    private static final String ACCEPT_ALL = """
+            update offers set status = 'ACCEPTED', accepted_date = ?, version = version + 1
+            where id in (%s) and status = 'PENDING' and created_date >= ?
+            """;
+
+    private static final String UPDATE = """
+            update offers set personal_number = ?, loans = ?, monthly_amount = ?, premium = ?, updated_time = ?,
+                version = version + 1
+            where id = ? and version = ?
+            """;
+
+    // H2 hands the updated rows back as generated keys, so the update needs no second read.
+    private static final String[] COLUMNS = {"id", "personal_number", "loans", "monthly_amount", "premium", "status",
+            "created_date", "updated_time", "accepted_date", "version"};
+
+    private final JdbcTemplate jdbc;
+
+    OfferUpdateRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Optional<Offer> acceptPending(long id, LocalDateTime acceptedDate, LocalDateTime cutoff) {
+        return update(ACCEPT, ps -> {
+            ps.setTimestamp(1, Timestamp.valueOf(acceptedDate));
+            ps.setLong(2, id);
+            ps.setTimestamp(3, Timestamp.valueOf(cutoff));
+        });
+    }
+
+    @Override
+    public List<Offer> acceptAllPending(Collection<Long> ids, LocalDateTime acceptedDate, LocalDateTime cutoff) {
+        String sql = ACCEPT_ALL.formatted(String.join(", ", Collections.nCopies(ids.size(), "?")));
+        return jdbc.execute(connection -> connection.prepareStatement(sql, COLUMNS), (PreparedStatement ps) -> {
+            int index = 1;
+            ps.setTimestamp(index++, Timestamp.valueOf(acceptedDate));
+            for (Long id : ids) {
+                ps.setLong(index++, id);
+            }
+            ps.setTimestamp(index, Timestamp.valueOf(cutoff));
+            ps.executeUpdate();
+            List<Offer> accepted = new ArrayList<>();
+            try (ResultSet rows = ps.getGeneratedKeys()) {
+                while (rows.next()) {
+                    accepted.add(offer(rows));
+                }
+            }
+            return accepted;
+        });
+    }
+
+    @Override
+    public Optional<Offer> updateIfVersion(long id, long expectedVersion, Offer changes) {
+        return update(UPDATE, ps -> {
+            ps.setString(1, changes.getPersonalNumber());
+            ps.setBytes(2, LoanAmountsConverter.pack(changes.getLoanAmounts()));
+            ps.setDouble(3, changes.getMonthlyAmount());
+            ps.setDouble(4, changes.getPremium());
+            ps.setTimestamp(5, Timestamp.valueOf(changes.getUpdatedTime()));
+            ps.setLong(6, id);
+            ps.setLong(7, expectedVersion);
+        });
+    }
+
+    private Optional<Offer> update(String sql, PreparedStatementSetter parameters) {
+        return jdbc.execute(connection -> connection.prepareStatement(sql, COLUMNS), (PreparedStatement ps) -> {
+            parameters.setValues(ps);
+            ps.executeUpdate();
+            try (ResultSet rows = ps.getGeneratedKeys()) {
+                return rows.next() ? Optional.of(offer(rows)) : Optional.<Offer>empty();
+            }
+        });
+    }
+
+    private static Offer offer(ResultSet row) throws SQLException {
+        Offer offer = new Offer();
+        offer.setId(row.getLong("id"));
+        offer.setPersonalNumber(row.getString("personal_number"));
+        byte[] loans = row.getBytes("loans");
+        offer.setLoanAmounts(loans == null ? new double[0] : LoanAmountsConverter.unpack(loans));
+        offer.setMonthlyAmount(row.getDouble("monthly_amount"));
+        offer.setPremium(row.getDouble("premium"));
+        offer.setStatus(OfferStatus.valueOf(row.getString("status")));
+        offer.setCreatedDate(row.getObject("created_date", LocalDateTime.class));
+        offer.setUpdatedTime(row.getObject("updated_time", LocalDateTime.class));
+        offer.setAcceptedDate(row.getObject("accepted_date", LocalDateTime.class));
+        offer.setVersion(row.getLong("version"));
+        return offer;
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.insuranceapi.repository;
+
+import java.time.LocalDateTime;
+
+public record PendingOffer(long id, LocalDateTime createdDate) {
+}
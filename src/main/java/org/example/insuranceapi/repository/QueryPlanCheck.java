@@ -0,0 +1,116 @@
+package org.example.insuranceapi.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Asks the database for the plan of each hot query at startup and warns about any that would scan a whole
+ * table, which is what a missing or dropped index looks like long before the table is big enough to hurt.
+ * The plans are read with H2's {@code EXPLAIN}; on other databases the check is skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "insurance.schema.plan-check", havingValue = "true", matchIfMissing = true)
+public class QueryPlanCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanCheck.class);
+
+    // H2 prints the access path as a comment after the table, e.g. "/* PUBLIC.IDX_OFFERS_STATUS_ID: STATUS = 'PENDING' */".
+    private static final Pattern ACCESS_PATH = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_.]+)(?::([^*]*))? \\*/");
+
+    /**
+     * A query the application runs often enough that it must be answered from an index, together with the
+     * columns an index may be searched on to narrow it down. On a small table H2 may prefer any of them.
+     */
+    record HotQuery(String name, String sql, String... indexedColumns) {
+    }
+
+    private static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("expiry sweep",
+                    "select id from offers where status = 'PENDING' and created_date < localtimestamp order by created_date limit 500",
+                    "CREATED_DATE"),
+            new HotQuery("accept",
+                    "select id from offers where id = 1 and status = 'PENDING' and created_date >= localtimestamp", "ID", "STATUS"),
+            new HotQuery("offers per customer",
+                    "select id from offers where personal_number = '199001011234' and id > 0 order by id limit 100",
+                    "PERSONAL_NUMBER"),
+            new HotQuery("offers per status",
+                    "select id from offers where status = 'ACCEPTED' and id > 0 order by id limit 100", "STATUS"),
+            new HotQuery("created per day",
+                    "select cast(created_date as date), count(*) from offers where created_date >= localtimestamp " +
+                            "group by cast(created_date as date)", "CREATED_DATE"),
+            new HotQuery("accepted per day",
+                    "select cast(accepted_date as date), count(*) from offers where accepted_date >= localtimestamp " +
+                            "group by cast(accepted_date as date)", "ACCEPTED_DATE"),
+            new HotQuery("archive sweep, expired",
+                    "select id from offers where status = 'EXPIRED' and created_date < localtimestamp order by created_date limit 1000",
+                    "CREATED_DATE"),
+            new HotQuery("archive sweep, accepted",
+                    "select id from offers where status = 'ACCEPTED' and accepted_date < localtimestamp order by accepted_date limit 1000",
+                    "ACCEPTED_DATE", "STATUS"),
+            new HotQuery("archived offers per customer",
+                    "select id from offers_archive where personal_number = '199001011234' and id > 0 order by id limit 100",
+                    "PERSONAL_NUMBER"),
+            new HotQuery("archived per day",
+                    "select cast(created_date as date), count(*) from offers_archive where created_date >= localtimestamp " +
+                            "group by cast(created_date as date)", "CREATED_DATE"),
+            new HotQuery("idempotency purge",
+                    "select idempotency_key from idempotency_keys where created_at < localtimestamp", "CREATED_AT"));
+
+    private final JdbcTemplate jdbc;
+
+    public QueryPlanCheck(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @return the names of the hot queries that would read every row of their table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public List<String> check() {
+        String product = jdbc.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"H2".equals(product)) {
+            logger.debug("Skipping query plan check on {}", product);
+            return List.of();
+        }
+
+        List<String> fullScans = new ArrayList<>();
+        for (HotQuery query : HOT_QUERIES) {
+            String plan = jdbc.queryForObject("explain " + query.sql(), String.class);
+            if (!searchesOn(plan, query.indexedColumns())) {
+                fullScans.add(query.name());
+                logger.warn("Query '{}' reads the whole table instead of searching an index on {}, check the indexes in db/migration:\n{}",
+                        query.name(), String.join(" or ", query.indexedColumns()).toLowerCase(), plan);
+            }
+        }
+        return fullScans;
+    }
+
+    // A table scan, or an index walked end to end without a condition on the column we filter by, reads every row.
+    private static boolean searchesOn(String plan, String... columns) {
+        Matcher accessPath = ACCESS_PATH.matcher(plan == null ? "" : plan);
+        if (!accessPath.find() || accessPath.group(1).endsWith(".tableScan")) {
+            return false;
+        }
+        String condition = accessPath.group(2);
+        if (condition == null) {
+            return false;
+        }
+        for (String column : columns) {
+            if (Pattern.compile("\\b" + column + "\\b").matcher(condition).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.dto.ConversionStatsDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.repository.ArchivedOfferRepository;
+import org.example.insuranceapi.repository.DailyCount;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps created/accepted counts per calendar day for the last {@link #MAX_DAYS} days in
+ * ring buffers indexed by epoch day, so conversion stats never have to scan the offers table.
+ */
+@Component
+public class ConversionStatsEngine {
+
+    public static final int MAX_DAYS = 365;
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversionStatsEngine.class);
+
+    private final InsuranceRepository repository;
+    private final ArchivedOfferRepository archive;
+
+    private final long[] bucketDay = new long[MAX_DAYS];
+    private final long[] created = new long[MAX_DAYS];
+    private final long[] accepted = new long[MAX_DAYS];
+    private long totalCreated;
+
+    public ConversionStatsEngine(InsuranceRepository repository, ArchivedOfferRepository archive) {
+        this.repository = repository;
+        this.archive = archive;
+        Arrays.fill(bucketDay, Long.MIN_VALUE);
+    }
+
+    // Holds the lock from the reads through the fill, so no event lands between them to be lost or counted twice.
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        LocalDate firstDay = LocalDate.now().minusDays(MAX_DAYS - 1);
+
+        long total = repository.count() + archive.count();
+        List<DailyCount> createdPerDay = new ArrayList<>(repository.countCreatedPerDaySince(firstDay.atStartOfDay()));
+        createdPerDay.addAll(archive.countCreatedPerDaySince(firstDay.atStartOfDay()));
+        List<DailyCount> acceptedPerDay = new ArrayList<>(repository.countAcceptedPerDaySince(firstDay.atStartOfDay()));
+        acceptedPerDay.addAll(archive.countAcceptedPerDaySince(firstDay.atStartOfDay()));
+
+        Arrays.fill(bucketDay, Long.MIN_VALUE);
+        Arrays.fill(created, 0);
+        Arrays.fill(accepted, 0);
+        totalCreated = total;
+        for (DailyCount count : createdPerDay) {
+            created[slot(count.day().toEpochDay())] += count.count();
+        }
+        for (DailyCount count : acceptedPerDay) {
+            accepted[slot(count.day().toEpochDay())] += count.count();
+        }
+        logger.info("Rebuilt conversion stats from {} offers", total);
+    }
+
+    @EventListener
+    public void onOfferEvent(OfferEvent event) {
+        switch (event.type()) {
+            case CREATED -> {
+                synchronized (this) {
+                    totalCreated++;
+                    created[slot(event.createdDate().toLocalDate().toEpochDay())]++;
+                }
+            }
+            case ACCEPTED -> {
+                synchronized (this) {
+                    accepted[slot(event.occurredAt().toLocalDate().toEpochDay())]++;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public synchronized ConversionStatsDto conversionStats(int days) {
+        long today = LocalDate.now().toEpochDay();
+        long acceptedWithinDays = 0;
+        for (long day = today - days + 1; day <= today; day++) {
+            int slot = (int) Math.floorMod(day, MAX_DAYS);
+            if (bucketDay[slot] == day) {
+                acceptedWithinDays += accepted[slot];
+            }
+        }
+        double conversionRate = totalCreated == 0 ? 0 : (acceptedWithinDays * 100.0) / totalCreated;
+        return new ConversionStatsDto(totalCreated, acceptedWithinDays, conversionRate);
+    }
+
+    public synchronized long createdWithin(int days) {
+        long today = LocalDate.now().toEpochDay();
+        long total = 0;
+        for (long day = today - days + 1; day <= today; day++) {
+            int slot = (int) Math.floorMod(day, MAX_DAYS);
+            if (bucketDay[slot] == day) {
+                total += created[slot];
+            }
+        }
+        return total;
+    }
+
+    // Claims the bucket for the given day, clearing whatever day it held before. Callers hold the lock.
+    private int slot(long epochDay) {
+        int slot = (int) Math.floorMod(epochDay, MAX_DAYS);
+        if (bucketDay[slot] != epochDay) {
+            bucketDay[slot] = epochDay;
+            created[slot] = 0;
+            accepted[slot] = 0;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,267 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.dto.DailyStatsDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.model.DailyOfferStats;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.repository.ArchivedOfferRepository;
+import org.example.insuranceapi.repository.DailyOfferStatsRepository;
+import org.example.insuranceapi.repository.DailyTotals;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materialises one {@code daily_offer_stats} row per complete day and keeps prefix sums of them in memory,
+ * so totals over any date range cost two array lookups. Days after the last stored row, normally just today,
+ * are read from the offers table and kept until the next offer event.
+ * Each run rolls up the days since the last stored row. A completed day is not revisited, so later
+ * premium changes to old offers do not alter its totals.
+ */
+@Component
+public class DailyRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyRollupService.class);
+
+    private static final int CHUNK_DAYS = 90;
+
+    private final InsuranceRepository offers;
+    private final ArchivedOfferRepository archive;
+    private final DailyOfferStatsRepository rollups;
+
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Rollups snapshot = Rollups.EMPTY;
+    private volatile Tail tail;
+
+    public DailyRollupService(InsuranceRepository offers, ArchivedOfferRepository archive, DailyOfferStatsRepository rollups) {
+        this.offers = offers;
+        this.archive = archive;
+        this.rollups = rollups;
+    }
+
+    // A failed roll-up must not stop the application; range() reads the missing days from the offers table.
+    @EventListener(ApplicationReadyEvent.class)
+    public void rollUpOnStartup() {
+        try {
+            rollUp();
+        } catch (DataAccessException e) {
+            logger.warn("Rolling up offer stats failed, serving days not rolled up from the offers table", e);
+            replaceSnapshot();
+        }
+    }
+
+    @Scheduled(cron = "${insurance.rollup.cron:0 5 0 * * *}")
+    public synchronized int rollUp() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate from = rollups.findTopByOrderByDayDesc()
+                .map(last -> last.getDay().plusDays(1))
+                .orElseGet(this::earliestCreatedDay);
+
+        int days = 0;
+        while (from != null && !from.isAfter(yesterday)) {
+            LocalDate to = from.plusDays(CHUNK_DAYS - 1).isBefore(yesterday) ? from.plusDays(CHUNK_DAYS - 1) : yesterday;
+            rollups.saveDays(compute(from, to));
+            days += (int) (to.toEpochDay() - from.toEpochDay() + 1);
+            from = to.plusDays(1);
+        }
+
+        replaceSnapshot();
+        if (days > 0) {
+            logger.info("Rolled up offer stats for {} days", days);
+        }
+        return days;
+    }
+
+    public synchronized int rebuild() {
+        rollups.deleteAllDays();
+        return rollUp();
+    }
+
+    /**
+     * Counts the times the stored days have been reloaded, so that cached responses built from an earlier
+     * snapshot can be told apart.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public DailyStatsDto range(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        Rollups rollups = snapshot;
+        Tail tail = tail(rollups, today);
+        LocalDate lastRolledUp = tail.firstDay().minusDays(1);
+        long[] totals = rollups.sum(from, to.isBefore(lastRolledUp) ? to : lastRolledUp);
+        double[] premiums = rollups.premiums(from, to.isBefore(lastRolledUp) ? to : lastRolledUp);
+
+        long created = totals[0];
+        long accepted = totals[1];
+        long expired = totals[2];
+        double premiumCreated = premiums[0];
+        double premiumAccepted = premiums[1];
+
+        for (DailyOfferStats day : tail.days()) {
+            if (!day.getDay().isBefore(from) && !day.getDay().isAfter(to)) {
+                created += day.getCreated();
+                accepted += day.getAccepted();
+                expired += day.getExpired();
+                premiumCreated += day.getPremiumCreated();
+                premiumAccepted += day.getPremiumAccepted();
+            }
+        }
+
+        double conversionRate = created == 0 ? 0 : (accepted * 100.0) / created;
+        return new DailyStatsDto(from, to, created, accepted, expired, premiumCreated, premiumAccepted, conversionRate);
+    }
+
+    @EventListener
+    public void onOfferEvent(OfferEvent event) {
+        changes.incrementAndGet();
+    }
+
+    private void replaceSnapshot() {
+        snapshot = Rollups.of(rollups.findAllByOrderByDayAsc());
+        generation.incrementAndGet();
+    }
+
+    // The days after the last rolled-up one through today, reused until an offer changes, the day turns or a
+    // roll-up replaces the snapshot. An event during the queries leaves the result stale, so it is not reused.
+    private Tail tail(Rollups rollups, LocalDate today) {
+        long seen = changes.get();
+        Tail current = tail;
+        if (current != null && current.changes() == seen && current.today().equals(today) && current.rollups() == rollups) {
+            return current;
+        }
+        LocalDate first = rollups.lastDay() != null ? rollups.lastDay().plusDays(1) : earliestCreatedDay();
+        if (first == null || first.isAfter(today)) {
+            first = today;
+        }
+        Tail computed = new Tail(rollups, today, seen, first, compute(first, today));
+        tail = computed;
+        return computed;
+    }
+
+    private List<DailyOfferStats> compute(LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        LocalDateTime expiredStart = start.minusDays(Offer.EXPIRATION_DAYS);
+        LocalDateTime expiredEnd = end.minusDays(Offer.EXPIRATION_DAYS);
+        Map<LocalDate, DailyTotals> created = byDay(offers.sumCreatedPerDay(start, end), archive.sumCreatedPerDay(start, end), 0);
+        Map<LocalDate, DailyTotals> accepted = byDay(offers.sumAcceptedPerDay(start, end), archive.sumAcceptedPerDay(start, end), 0);
+        Map<LocalDate, DailyTotals> expired = byDay(offers.sumUnacceptedCreatedPerDay(expiredStart, expiredEnd),
+                archive.sumUnacceptedCreatedPerDay(expiredStart, expiredEnd), Offer.EXPIRATION_DAYS);
+
+        List<DailyOfferStats> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DailyTotals c = created.get(day);
+            DailyTotals a = accepted.get(day);
+            DailyTotals e = expired.get(day);
+            days.add(new DailyOfferStats(day,
+                    c == null ? 0 : c.count(),
+                    a == null ? 0 : a.count(),
+                    e == null ? 0 : e.count(),
+                    c == null ? 0 : c.premium(),
+                    a == null ? 0 : a.premium()));
+        }
+        return days;
+    }
+
+    private LocalDate earliestCreatedDay() {
+        LocalDateTime live = offers.findEarliestCreatedDate();
+        LocalDateTime archived = archive.findEarliestCreatedDate();
+        LocalDateTime earliest = live == null || (archived != null && archived.isBefore(live)) ? archived : live;
+        return earliest == null ? null : earliest.toLocalDate();
+    }
+
+    // Adds up the live and archived totals per day.
+    private static Map<LocalDate, DailyTotals> byDay(List<DailyTotals> live, List<DailyTotals> archived, long shiftDays) {
+        Map<LocalDate, DailyTotals> byDay = new HashMap<>();
+        for (List<DailyTotals> tier : List.of(live, archived)) {
+            for (DailyTotals total : tier) {
+                byDay.merge(total.day().plusDays(shiftDays), total,
+                        (a, b) -> new DailyTotals(a.day(), a.count() + b.count(), a.premium() + b.premium()));
+            }
+        }
+        return byDay;
+    }
+
+    private record Tail(Rollups rollups, LocalDate today, long changes, LocalDate firstDay, List<DailyOfferStats> days) {
+    }
+
+    /**
+     * Running totals over consecutive days starting at {@code firstDay}; index {@code i + 1} holds the sum of
+     * days {@code 0..i}, so any range is a subtraction.
+     */
+    private record Rollups(long firstDay, long[] created, long[] accepted, long[] expired,
+                           double[] premiumCreated, double[] premiumAccepted) {
+
+        static final Rollups EMPTY = new Rollups(0, new long[1], new long[1], new long[1], new double[1], new double[1]);
+
+        static Rollups of(List<DailyOfferStats> days) {
+            if (days.isEmpty()) {
+                return EMPTY;
+            }
+            long firstDay = days.get(0).getDay().toEpochDay();
+            int length = (int) (days.get(days.size() - 1).getDay().toEpochDay() - firstDay + 2);
+            Rollups rollups = new Rollups(firstDay, new long[length], new long[length], new long[length],
+                    new double[length], new double[length]);
+            for (DailyOfferStats day : days) {
+                int i = (int) (day.getDay().toEpochDay() - firstDay) + 1;
+                rollups.created[i] = day.getCreated();
+                rollups.accepted[i] = day.getAccepted();
+                rollups.expired[i] = day.getExpired();
+                rollups.premiumCreated[i] = day.getPremiumCreated();
+                rollups.premiumAccepted[i] = day.getPremiumAccepted();
+            }
+            for (int i = 1; i < length; i++) {
+                rollups.created[i] += rollups.created[i - 1];
+                rollups.accepted[i] += rollups.accepted[i - 1];
+                rollups.expired[i] += rollups.expired[i - 1];
+                rollups.premiumCreated[i] += rollups.premiumCreated[i - 1];
+                rollups.premiumAccepted[i] += rollups.premiumAccepted[i - 1];
+            }
+            return rollups;
+        }
+
+        LocalDate lastDay() {
+            return created.length == 1 ? null : LocalDate.ofEpochDay(firstDay + created.length - 2);
+        }
+
+        long[] sum(LocalDate from, LocalDate to) {
+            int lo = index(from.toEpochDay());
+            int hi = index(to.toEpochDay() + 1);
+            if (hi <= lo) {
+                return new long[3];
+            }
+            return new long[]{created[hi] - created[lo], accepted[hi] - accepted[lo], expired[hi] - expired[lo]};
+        }
+
+        double[] premiums(LocalDate from, LocalDate to) {
+            int lo = index(from.toEpochDay());
+            int hi = index(to.toEpochDay() + 1);
+            if (hi <= lo) {
+                return new double[2];
+            }
+            return new double[]{premiumCreated[hi] - premiumCreated[lo], premiumAccepted[hi] - premiumAccepted[lo]};
+        }
+
+        // Position in the prefix arrays of the boundary before the given day, clamped to the stored range.
+        private int index(long epochDay) {
+            return (int) Math.max(0, Math.min(created.length - 1, epochDay - firstDay));
+        }
+    }
+}
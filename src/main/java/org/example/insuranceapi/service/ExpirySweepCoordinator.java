@@ -0,0 +1,146 @@
+package org.example.insuranceapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.example.insuranceapi.config.SweepLeaseProperties;
+import org.example.insuranceapi.repository.LeaseStore;
+import org.example.insuranceapi.repository.LeaseStore.Lease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Runs the expiry sweep on each tick. With {@code insurance.expiry.lease.enabled} the offers are split into
+ * {@code shards} by {@code id mod shards}, and a node only sweeps the shards it holds a lease on in
+ * {@code sweep_leases}.
+ * <p>
+ * Every tick a node renews its heartbeat in {@code sweep_nodes} and its leases, and aims for an even share of
+ * the shards among the nodes with a live heartbeat. It hands back what it holds above that share and takes
+ * free or expired shards up to it. A node that dies stops renewing; once its heartbeat and leases run out
+ * the remaining nodes split its shards between them. Shards stay
+ * disjoint as long as a sweep finishes within the lease ttl. If one overruns, the conditional update in
+ * {@link InsuranceService#checkForExpiredOffers(int, int)} keeps the overlap harmless.
+ */
+@Component
+public class ExpirySweepCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpirySweepCoordinator.class);
+
+    static final String LEASE_NAME = "expiry-sweep";
+
+    private final InsuranceService service;
+    private final LeaseStore leases;
+    private final SweepLeaseProperties properties;
+    private final String nodeId;
+
+    private volatile Set<Integer> owned = Set.of();
+
+    public ExpirySweepCoordinator(InsuranceService service, LeaseStore leases, SweepLeaseProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.service = service;
+        this.leases = leases;
+        this.properties = properties;
+        this.nodeId = properties.nodeId() != null ? properties.nodeId() : defaultNodeId();
+        Gauge.builder("insurance.expiry.lease.shards", this, coordinator -> coordinator.owned.size())
+                .description("Expiry sweep shards leased by this node")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${insurance.expiry.cron}")
+    public int sweep() {
+        if (!properties.enabled()) {
+            return service.checkForExpiredOffers();
+        }
+
+        long leasedUntil = System.nanoTime() + properties.ttl().toNanos();
+        int expired = 0;
+        for (int shard : claimShards()) {
+            if (System.nanoTime() - leasedUntil > 0) {
+                logger.warn("Expiry sweep outran its {} lease; leaving the remaining shards to the next tick", properties.ttl());
+                break;
+            }
+            expired += service.checkForExpiredOffers(shard, properties.shards());
+        }
+        return expired;
+    }
+
+    /**
+     * Renews, hands back and takes leases as described on the class.
+     *
+     * @return the shards this node may sweep for the lease ttl from now
+     */
+    public synchronized Set<Integer> claimShards() {
+        List<String> liveNodes = leases.heartbeat(LEASE_NAME, nodeId, properties.ttl());
+        List<Lease> all = leases.findAll(LEASE_NAME, properties.shards());
+
+        int fairShare = (properties.shards() + liveNodes.size() - 1) / liveNodes.size();
+
+        Set<Integer> claimed = new TreeSet<>();
+        for (Lease lease : all) {
+            if (lease.heldBy(nodeId)) {
+                if (claimed.size() < fairShare && leases.compareAndSet(LEASE_NAME, lease, nodeId, properties.ttl())) {
+                    claimed.add(lease.shard());
+                } else if (claimed.size() >= fairShare) {
+                    leases.compareAndSet(LEASE_NAME, lease, null, Duration.ZERO);
+                }
+            }
+        }
+        for (Lease lease : all) {
+            if (claimed.size() >= fairShare) {
+                break;
+            }
+            if (lease.isFree() && leases.compareAndSet(LEASE_NAME, lease, nodeId, properties.ttl())) {
+                claimed.add(lease.shard());
+            }
+        }
+
+        if (!claimed.equals(owned)) {
+            logger.info("Node {} now sweeps expiry shards {} of {} ({} live nodes)", nodeId, claimed, properties.shards(), liveNodes.size());
+        }
+        owned = Set.copyOf(claimed);
+        return claimed;
+    }
+
+    public Set<Integer> ownedShards() {
+        return owned;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    // Lets the other nodes take over right away instead of waiting for the leases to run out.
+    @PreDestroy
+    public synchronized void release() {
+        if (!properties.enabled()) {
+            return;
+        }
+        leases.leave(LEASE_NAME, nodeId);
+        for (Lease lease : leases.findAll(LEASE_NAME, properties.shards())) {
+            if (lease.heldBy(nodeId)) {
+                leases.compareAndSet(LEASE_NAME, lease, null, Duration.ZERO);
+            }
+        }
+        owned = Set.of();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
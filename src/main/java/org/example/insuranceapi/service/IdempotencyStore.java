@@ -0,0 +1,166 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.config.IdempotencyProperties;
+import org.example.insuranceapi.model.IdempotencyRecord;
+import org.example.insuranceapi.repository.IdempotencyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} so a retried request can be answered without
+ * running it again. Keys are spread over lock stripes; each stripe keeps its entries in insertion order,
+ * which with a fixed TTL is also expiry order, so eviction only ever looks at the head.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public record StoredResponse(String fingerprint, int status, String location, String contentType, byte[] body) {
+    }
+
+    public sealed interface Outcome permits Started, Replay, InProgress, Mismatch {
+    }
+
+    public record Started() implements Outcome {
+    }
+
+    public record Replay(StoredResponse response) implements Outcome {
+    }
+
+    public record InProgress() implements Outcome {
+    }
+
+    public record Mismatch() implements Outcome {
+    }
+
+    private record Entry(String fingerprint, StoredResponse response, long expiresAt) {
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    }
+
+    private final IdempotencyProperties properties;
+    private final IdempotencyRepository repository;
+    private final Stripe[] stripes;
+
+    public IdempotencyStore(IdempotencyProperties properties, IdempotencyRepository repository) {
+        this.properties = properties;
+        this.repository = repository;
+        this.stripes = new Stripe[properties.stripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    public Outcome begin(String key, String fingerprint) {
+        Stripe stripe = stripe(key);
+        long now = System.currentTimeMillis();
+
+        stripe.lock.lock();
+        try {
+            evictExpired(stripe, now);
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                return outcome(entry, fingerprint);
+            }
+            stripe.entries.put(key, new Entry(fingerprint, null, now + properties.ttl().toMillis()));
+            if (stripe.entries.size() > properties.maxEntriesPerStripe()) {
+                Iterator<Map.Entry<String, Entry>> eldest = stripe.entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        // The in-flight marker is in place, so concurrent retries wait on it while we consult the table.
+        if (properties.persistent()) {
+            Optional<StoredResponse> persisted = findPersisted(key);
+            if (persisted.isPresent()) {
+                remember(key, persisted.get());
+                return persisted.get().fingerprint().equals(fingerprint) ? new Replay(persisted.get()) : new Mismatch();
+            }
+        }
+        return new Started();
+    }
+
+    public void complete(String key, StoredResponse response) {
+        remember(key, response);
+        if (properties.persistent()) {
+            repository.save(new IdempotencyRecord(key, response.fingerprint(), response.status(), response.location(),
+                    response.contentType(), response.body(), LocalDateTime.now()));
+        }
+    }
+
+    public void abandon(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null && entry.response() == null) {
+                stripe.entries.remove(key);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${insurance.idempotency.purge-cron:0 0 * * * *}")
+    public void purgePersisted() {
+        if (properties.persistent()) {
+            int purged = repository.deleteCreatedBefore(LocalDateTime.now().minus(properties.ttl()));
+            if (purged > 0) {
+                logger.info("Purged {} expired idempotency keys", purged);
+            }
+        }
+    }
+
+    private void remember(String key, StoredResponse response) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+            stripe.entries.put(key, new Entry(response.fingerprint(), response, System.currentTimeMillis() + properties.ttl().toMillis()));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Optional<StoredResponse> findPersisted(String key) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.ttl());
+        return repository.findById(key)
+                .filter(record -> record.getCreatedAt().isAfter(cutoff))
+                .map(record -> new StoredResponse(record.getFingerprint(), record.getStatus(), record.getLocation(),
+                        record.getContentType(), record.getBody()));
+    }
+
+    private static Outcome outcome(Entry entry, String fingerprint) {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            return new Mismatch();
+        }
+        return entry.response() == null ? new InProgress() : new Replay(entry.response());
+    }
+
+    private static void evictExpired(Stripe stripe, long now) {
+        Iterator<Entry> head = stripe.entries.values().iterator();
+        while (head.hasNext() && head.next().expiresAt() <= now) {
+            head.remove();
+        }
+    }
+
+    private Stripe stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+}
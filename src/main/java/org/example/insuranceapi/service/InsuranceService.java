@@ -1,93 +1,371 @@
 package org.example.insuranceapi.service;
 
-import jakarta.transaction.Transactional;
+import org.example.insuranceapi.config.ExpiryProperties;
+import org.example.insuranceapi.dto.AcceptOutcome;
+import org.example.insuranceapi.dto.OfferAcceptItemDto;
+import org.example.insuranceapi.dto.OfferAcceptResultDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.dto.OfferPageDto;
+import org.example.insuranceapi.dto.OfferSummaryDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.event.OfferEventType;
 import org.example.insuranceapi.exception.ConflictException;
 import org.example.insuranceapi.exception.OfferNotFound;
+import org.example.insuranceapi.exception.PreconditionFailedException;
+import org.example.insuranceapi.model.ArchivedOffer;
 import org.example.insuranceapi.model.Offer;
 import org.example.insuranceapi.dto.OfferCreateDto;
 import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.ArchivedOfferRepository;
 import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.repository.LockedAccept;
+import org.example.insuranceapi.repository.OfferState;
+import org.example.insuranceapi.repository.OfferSearchCriteria;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class InsuranceService {
 
     private static final Logger logger = LoggerFactory.getLogger(InsuranceService.class);
 
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final InsuranceRepository repository;
+    private final ArchivedOfferRepository archive;
+    private final ExpiryProperties expiryProperties;
+    private final ApplicationEventPublisher events;
+    private final OfferCache offerCache;
+    private final PricingEngine pricingEngine;
+    private final OfferWriteBehind writeBehind;
+
+    private final Timer sweepTimer;
+    private final Counter sweepRowsScanned;
+    private final Counter sweepRowsExpired;
 
-    public InsuranceService(InsuranceRepository repository) {
+    // Prefixed to the mutation version so that versions handed out before a restart are never reused.
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong mutations = new AtomicLong();
+
+    public InsuranceService(InsuranceRepository repository, ArchivedOfferRepository archive, ExpiryProperties expiryProperties,
+                            ApplicationEventPublisher events, OfferCache offerCache, PricingEngine pricingEngine,
+                            OfferWriteBehind writeBehind, MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.archive = archive;
+        this.expiryProperties = expiryProperties;
+        this.events = events;
+        this.offerCache = offerCache;
+        this.pricingEngine = pricingEngine;
+        this.writeBehind = writeBehind;
+        this.sweepTimer = Timer.builder("insurance.expiry.sweep")
+                .description("Duration of the expiry sweep")
+                .register(meterRegistry);
+        this.sweepRowsScanned = Counter.builder("insurance.expiry.rows.scanned")
+                .description("Expiry candidates selected by the sweep")
+                .register(meterRegistry);
+        this.sweepRowsExpired = Counter.builder("insurance.expiry.rows.expired")
+                .description("Offers expired by the sweep")
+                .register(meterRegistry);
+    }
+
+    @Timed("insurance.service")
+    public OfferDto getOffer(Long id) {
+        OfferDto offer = offerCache.get(id, key -> repository.findById(key).map(OfferDto::from)
+                .or(() -> archive.findById(key).map(OfferDto::from))
+                .orElse(null));
+        if (offer == null) {
+            throw new OfferNotFound("Could not find offer with id: " + id);
+        }
+        return offer;
+    }
+
+    @Timed("insurance.service")
+    public OfferPageDto searchOffers(OfferSearchCriteria criteria, long afterId, int limit, boolean includeLoans) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<OfferSummaryDto> items = repository.searchAfter(criteria, afterId, limit + 1);
+        Long nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = items.get(limit - 1).id();
+        }
+
+        if (includeLoans && !items.isEmpty()) {
+            Map<Long, double[]> loans = repository.findLoansByIds(items.stream().map(OfferSummaryDto::id).toList());
+            items = items.stream()
+                    .map(item -> item.withLoans(Arrays.stream(loans.get(item.id())).boxed().toList()))
+                    .toList();
+        }
+        return new OfferPageDto(items, nextCursor);
     }
 
+    @Timed("insurance.service")
     public Offer createOffer(OfferCreateDto dto) {
+        Offer offer = newOffer(dto, LocalDateTime.now());
+        offer.setPremium(pricingEngine.price(offer.getLoanAmounts(), offer.getPersonalNumber()));
+        if (writeBehind.isEnabled()) {
+            return writeBehind.submit(offer);
+        }
 
+        Offer saved = repository.save(offer);
+        publish(OfferEventType.CREATED, saved, saved.getCreatedDate());
+        return saved;
+    }
+
+    @Timed("insurance.service")
+    public List<Offer> createOffers(List<OfferCreateDto> dtos) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Offer> offers = new ArrayList<>(dtos.size());
+        double[][] loans = new double[dtos.size()][];
+        String[] personalNumbers = new String[dtos.size()];
+        for (OfferCreateDto dto : dtos) {
+            Offer offer = newOffer(dto, now);
+            loans[offers.size()] = offer.getLoanAmounts();
+            personalNumbers[offers.size()] = offer.getPersonalNumber();
+            offers.add(offer);
+        }
+
+        double[] premiums = new double[offers.size()];
+        pricingEngine.priceBatch(loans, personalNumbers, premiums);
+        for (int i = 0; i < premiums.length; i++) {
+            offers.get(i).setPremium(premiums[i]);
+        }
+
+        List<Offer> saved = repository.saveAll(offers);
+        for (Offer offer : saved) {
+            publish(OfferEventType.CREATED, offer, offer.getCreatedDate());
+        }
+        return saved;
+    }
+
+    private Offer newOffer(OfferCreateDto dto, LocalDateTime createdDate) {
         Offer offer = new Offer();
         offer.setPersonalNumber(dto.personalNumber());
         offer.setLoans(dto.loans());
         offer.setMonthlyAmount(dto.monthlyPayment());
         offer.setStatus(OfferStatus.PENDING);
-        offer.setCreatedDate(LocalDateTime.now());
-
-        offer.setPremium(calculatePremium(dto.loans()));
-
-        return repository.save(offer);
+        offer.setCreatedDate(createdDate);
+        return offer;
     }
 
+    @Timed("insurance.service")
     public Offer updateOffer(Long id, OfferCreateDto dto) {
-        Offer offer = repository.findById(id).orElseThrow(() -> new OfferNotFound("Could not find offer with id: " + id));
+        return updateOffer(id, dto, null);
+    }
 
+    /**
+     * @param expectedVersion the version the caller last saw (from {@code If-Match}), or {@code null} to update
+     *                        whatever the current version is
+     * @throws PreconditionFailedException if the offer has changed since {@code expectedVersion}
+     */
+    @Timed("insurance.service")
+    public Offer updateOffer(Long id, OfferCreateDto dto, Long expectedVersion) {
+        Offer saved;
+        if (expectedVersion == null) {
+            Offer offer = repository.findById(id).orElseThrow(() -> notUpdatable(id));
+            saved = repository.save(applyUpdate(offer, dto));
+        } else {
+            // The version is compared by the update itself, so no other write can land between check and write.
+            saved = repository.updateIfVersion(id, expectedVersion, applyUpdate(new Offer(), dto)).orElseThrow(() -> {
+                if (repository.existsById(id)) {
+                    return new PreconditionFailedException("Offer with id: " + id + " has changed since version " + expectedVersion);
+                }
+                return notUpdatable(id);
+            });
+        }
+        publish(OfferEventType.UPDATED, saved, saved.getUpdatedTime());
+        return saved;
+    }
+
+    private Offer applyUpdate(Offer offer, OfferCreateDto dto) {
         offer.setMonthlyAmount(dto.monthlyPayment());
         offer.setLoans(dto.loans());
         offer.setPersonalNumber(dto.personalNumber());
         offer.setUpdatedTime(LocalDateTime.now());
+        offer.setPremium(pricingEngine.price(offer.getLoanAmounts(), offer.getPersonalNumber()));
+        return offer;
+    }
 
-        offer.setPremium(calculatePremium(dto.loans()));
-
-        return repository.save(offer);
+    private RuntimeException notUpdatable(Long id) {
+        if (archive.existsById(id)) {
+            return new ConflictException("Offer with id: " + id + " is archived and can no longer be changed");
+        }
+        return new OfferNotFound("Could not find offer with id: " + id);
     }
 
+    @Timed("insurance.service")
     public Offer acceptOffer(Long id) {
-        Offer offer = repository.findById(id).orElseThrow(() -> new OfferNotFound("Could not find offer with id: " + id));
+        LocalDateTime now = LocalDateTime.now();
 
-        if (offer.getStatus() == OfferStatus.ACCEPTED) {
-            throw new ConflictException("Offer has already been accepted");
+        Offer accepted = repository.acceptPending(id, now, now.minusDays(Offer.EXPIRATION_DAYS)).orElse(null);
+        if (accepted == null) {
+            OfferStatus status = repository.findById(id).map(Offer::getStatus)
+                    .or(() -> archive.findById(id).map(ArchivedOffer::getStatus))
+                    .orElseThrow(() -> new OfferNotFound("Could not find offer with id: " + id));
+            if (status == OfferStatus.ACCEPTED) {
+                throw new ConflictException("Offer has already been accepted");
+            }
+            throw new ConflictException("Offer with id: " + id + " has expired");
         }
 
-        if (offer.getCreatedDate().isBefore(LocalDateTime.now().minusDays(30)) || offer.getStatus() == OfferStatus.EXPIRED) {
-            throw new ConflictException("Offer with id: " + id + " has expired");
+        publish(OfferEventType.ACCEPTED, accepted, accepted.getAcceptedDate());
+        return accepted;
+    }
+
+    /**
+     * Accepts many offers at once with the same rules as {@link #acceptOffer}: one locking select of the live
+     * offers' states and one conditional update that returns the accepted rows, plus a lookup in the archive for
+     * ids not found live. Every id gets an outcome, in request order. A repeated id gets the outcome of its first
+     * occurrence, except that an offer accepted by its first occurrence is a conflict for the later ones.
+     */
+    @Timed("insurance.service")
+    public OfferAcceptResultDto acceptOffers(List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusDays(Offer.EXPIRATION_DAYS);
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+
+        LockedAccept result = repository.acceptAllPendingLocked(distinct, now, cutoff);
+        Map<Long, OfferState> live = new HashMap<>();
+        for (OfferState state : result.locked()) {
+            live.put(state.id(), state);
+        }
+        Map<Long, Offer> updated = new HashMap<>();
+        for (Offer offer : result.accepted()) {
+            updated.put(offer.getId(), offer);
+        }
+        Map<Long, OfferStatus> archived = new HashMap<>();
+        if (live.size() < distinct.size()) {
+            List<Long> missing = distinct.stream().filter(id -> !live.containsKey(id)).toList();
+            for (ArchivedOffer offer : archive.findAllById(missing)) {
+                archived.put(offer.getId(), offer.getStatus());
+            }
+        }
+
+        Map<Long, OfferAcceptItemDto> outcomes = new HashMap<>();
+        for (Long id : distinct) {
+            OfferState state = live.get(id);
+            OfferStatus status = state != null ? state.status() : archived.get(id);
+            OfferAcceptItemDto item;
+            if (status == null) {
+                item = new OfferAcceptItemDto(id, AcceptOutcome.NOT_FOUND, "Could not find offer with id: " + id);
+            } else if (status == OfferStatus.ACCEPTED) {
+                item = new OfferAcceptItemDto(id, AcceptOutcome.CONFLICT, "Offer has already been accepted");
+            } else if (state != null && status == OfferStatus.PENDING && !state.createdDate().isBefore(cutoff)) {
+                // The state was read under the lock the update ran with, so the update accepted this offer.
+                Offer offer = updated.get(id);
+                publish(OfferEventType.ACCEPTED, offer, offer.getAcceptedDate());
+                item = new OfferAcceptItemDto(id, AcceptOutcome.ACCEPTED, null);
+            } else {
+                item = new OfferAcceptItemDto(id, AcceptOutcome.EXPIRED, "Offer with id: " + id + " has expired");
+            }
+            outcomes.put(id, item);
         }
 
-        offer.setStatus(OfferStatus.ACCEPTED);
-        offer.setAcceptedDate(LocalDateTime.now());
+        List<OfferAcceptItemDto> items = new ArrayList<>(ids.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long id : ids) {
+            OfferAcceptItemDto item = outcomes.get(id);
+            if (!seen.add(id) && item.outcome() == AcceptOutcome.ACCEPTED) {
+                item = new OfferAcceptItemDto(id, AcceptOutcome.CONFLICT, "Offer has already been accepted");
+            }
+            items.add(item);
+        }
+        int accepted = (int) items.stream().filter(item -> item.outcome() == AcceptOutcome.ACCEPTED).count();
+        return new OfferAcceptResultDto(accepted, items.size() - accepted, items);
+    }
+
+    /**
+     * Changes whenever an offer is created, updated, accepted or expired through this node, so it can back
+     * the ETags of responses derived from many offers, such as the stats.
+     */
+    public String mutationVersion() {
+        return epoch + "-" + mutations.get();
+    }
 
-        return repository.save(offer);
+    // Every mutation, including write-behind inserts and expiry, is announced with an OfferEvent.
+    @EventListener
+    public void onOfferEvent(OfferEvent event) {
+        mutations.incrementAndGet();
     }
 
-    private double calculatePremium(List<Double> loans) {
-        double sumOfLoans = loans.stream().mapToDouble(Double::doubleValue).sum();
-        return sumOfLoans * 0.038;
+    private void publish(OfferEventType type, Offer offer, LocalDateTime occurredAt) {
+        events.publishEvent(new OfferEvent(type, offer.getId(), offer.getCreatedDate(), occurredAt, OfferDto.from(offer)));
     }
 
-    @Transactional
-    @Scheduled(cron = "*/30 * * * * *") // kör var 30:e sekund för testning
-    public void checkForExpiredOffers() {
+    /**
+     * Expires those of {@code ids} that are still pending past their validity and publishes an EXPIRED event
+     * for each. {@link OfferExpiryWheel} calls this with the offers whose deadline has come.
+     */
+    public int expireOffers(Collection<Long> ids) {
         LocalDateTime now = LocalDateTime.now();
+        List<Long> expired = repository.expireDue(ids, now.minusDays(Offer.EXPIRATION_DAYS));
+        for (Long id : expired) {
+            events.publishEvent(new OfferEvent(OfferEventType.EXPIRED, id, null, now, null));
+        }
+        return expired.size();
+    }
+
+    /**
+     * Safety net behind {@link OfferExpiryWheel}: finds pending offers past their validity that the wheel
+     * missed, such as offers created on a node that has since stopped.
+     */
+    public int checkForExpiredOffers() {
+        return checkForExpiredOffers(0, 1);
+    }
 
-        List<Offer> expiredOffers = repository.findAll().stream().filter(offer -> offer.isExpired(now)).toList();
+    /**
+     * Expires the pending offers past their validity whose {@code id mod shards} equals {@code shard}, so nodes
+     * holding different shards never touch the same rows. {@link ExpirySweepCoordinator} schedules this.
+     */
+    public int checkForExpiredOffers(int shard, int shards) {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minusDays(Offer.EXPIRATION_DAYS);
+        Limit batch = Limit.of(expiryProperties.batchSize());
 
-        for (Offer offer : expiredOffers) {
-            offer.setStatus(OfferStatus.EXPIRED);
-            offer.setPersonalNumber("");
-            logger.info("Offer expired and updated: {}", offer);
+        int expired = 0;
+        int batches = 0;
+        List<Long> ids;
+        while (!(ids = shards == 1
+                ? repository.findIdsByStatusCreatedBefore(OfferStatus.PENDING, cutoff, batch)
+                : repository.findIdsByStatusCreatedBeforeInShard(OfferStatus.PENDING, cutoff, shards, shard, batch)).isEmpty()) {
+            // The wheel or an accept may have got to some of the selected rows since they were read.
+            List<Long> batchExpired = repository.expireDue(ids, cutoff);
+            sweepRowsScanned.increment(ids.size());
+            sweepRowsExpired.increment(batchExpired.size());
+            expired += batchExpired.size();
+            batches++;
+            for (Long id : batchExpired) {
+                events.publishEvent(new OfferEvent(OfferEventType.EXPIRED, id, null, now, null));
+            }
         }
 
-        repository.saveAll(expiredOffers);
+        long elapsed = sample.stop(sweepTimer);
+        if (expired > 0) {
+            logger.info("Expired {} offers in {} batches ({} ms)", expired, batches, elapsed / 1_000_000);
+        }
+        return expired;
     }
 }
@@ -0,0 +1,71 @@
+package org.example.insuranceapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.insuranceapi.config.ArchiveProperties;
+import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.OfferArchiveWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the live {@code offers} table small by moving accepted offers accepted, and expired offers created, more
+ * than {@code insurance.archive.min-age} ago into {@code offers_archive}. Each batch commits on its own, so a run
+ * holds locks only briefly and an interrupted run resumes where it stopped.
+ */
+@Component
+public class OfferArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferArchiver.class);
+
+    private static final OfferStatus[] TERMINAL = {OfferStatus.EXPIRED, OfferStatus.ACCEPTED};
+
+    private final ArchiveProperties properties;
+    private final OfferArchiveWriter writer;
+    private final TransactionTemplate transactions;
+
+    private final Timer sweepTimer;
+    private final Counter archived;
+
+    public OfferArchiver(ArchiveProperties properties, OfferArchiveWriter writer, TransactionTemplate transactions,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.writer = writer;
+        this.transactions = transactions;
+        this.sweepTimer = Timer.builder("insurance.archive.sweep")
+                .description("Duration of the archive sweep")
+                .register(meterRegistry);
+        this.archived = Counter.builder("insurance.archive.rows")
+                .description("Offers moved to the archive table")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${insurance.archive.cron:0 30 * * * *}")
+    public int archive() {
+        Timer.Sample sample = Timer.start();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(properties.minAge());
+
+        int total = 0;
+        for (OfferStatus status : TERMINAL) {
+            int moved;
+            do {
+                moved = transactions.execute(tx -> writer.moveBatch(status, cutoff, now, properties.batchSize()));
+                archived.increment(moved);
+                total += moved;
+            } while (moved == properties.batchSize());
+        }
+
+        long elapsed = sample.stop(sweepTimer);
+        if (total > 0) {
+            logger.info("Archived {} offers older than {} ({} ms)", total, cutoff.toLocalDate(), elapsed / 1_000_000);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.insuranceapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.insuranceapi.config.OfferCacheProperties;
+import org.example.insuranceapi.dto.CacheStatsDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+@Component
+public class OfferCache {
+
+    private final Cache<Long, OfferDto> cache;
+
+    public OfferCache(OfferCacheProperties properties) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+    }
+
+    public OfferDto get(long id, Function<Long, OfferDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void put(OfferDto offer) {
+        cache.put(offer.id(), offer);
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    // Update and accept publish after their own commits in no fixed order, so an older snapshot may arrive last.
+    @EventListener
+    public void onOfferEvent(OfferEvent event) {
+        if (event.offer() != null) {
+            cache.asMap().merge(event.offerId(), event.offer(), OfferCache::newer);
+        } else {
+            cache.invalidate(event.offerId());
+        }
+    }
+
+    private static OfferDto newer(OfferDto cached, OfferDto published) {
+        if (cached.version() != null && published.version() != null && cached.version() > published.version()) {
+            return cached;
+        }
+        return published;
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate() * 100);
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.config.OfferEventStreamProperties;
+import org.example.insuranceapi.dto.OfferEventDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans offer events out to Server-Sent Event subscribers. Every event gets an id of the form
+ * {@code <stream>-<sequence>}, where the stream part changes on every restart, and the last
+ * {@code bufferSize} events are kept in a ring buffer so a client reconnecting with {@code Last-Event-ID}
+ * gets what it missed.
+ * <p>
+ * Publishing only appends to the ring and offers the event to each subscriber's bounded queue; the network
+ * writes happen on the task executor. A subscriber whose queue overflows is disconnected and resumes
+ * from the ring buffer when it reconnects, so a slow consumer never holds up offer writes.
+ */
+@Component
+public class OfferEventStream implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferEventStream.class);
+
+    private static final long FRESH = -1;
+    private static final long UNKNOWN = -2;
+    private static final long RECONNECT_MILLIS = 3_000;
+
+    private final OfferEventStreamProperties properties;
+    private final Executor executor;
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final OfferEventDto[] ring;
+    private long lastSequence;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+
+    public OfferEventStream(OfferEventStreamProperties properties, @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.properties = properties;
+        this.executor = executor;
+        this.ring = new OfferEventDto[properties.bufferSize()];
+    }
+
+    @EventListener
+    public void onOfferEvent(OfferEvent event) {
+        OfferEventDto streamed;
+        synchronized (this) {
+            long sequence = ++lastSequence;
+            streamed = new OfferEventDto(streamId + "-" + sequence, event.type(), event.offerId(), event.occurredAt(), event.offer());
+            ring[(int) (sequence % ring.length)] = streamed;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(streamed);
+        }
+    }
+
+    /**
+     * Opens a subscription, first replaying everything after {@code lastEventId}. If that event is no longer
+     * buffered, or belongs to an earlier run of the service, a {@code gap} event is sent before the oldest
+     * buffered events so the client knows to reconcile through the offers API.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.timeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, properties.subscriberQueueSize());
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        // Opening with a comment commits the response headers before the first event arrives.
+        subscriber.backlog.add(Subscriber.OPEN);
+        synchronized (this) {
+            long oldest = Math.max(1, lastSequence - ring.length + 1);
+            long resumeAfter = resumePoint(lastEventId);
+            if (resumeAfter != FRESH) {
+                if (resumeAfter == UNKNOWN || resumeAfter + 1 < oldest) {
+                    subscriber.backlog.add(Subscriber.GAP);
+                }
+                long first = resumeAfter == UNKNOWN ? oldest : Math.max(resumeAfter + 1, oldest);
+                for (long sequence = first; sequence <= lastSequence; sequence++) {
+                    subscriber.backlog.add(ring[(int) (sequence % ring.length)]);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    @Scheduled(fixedRateString = "${insurance.events.heartbeat:15s}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.enqueue(Subscriber.HEARTBEAT);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.closed = true;
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops before the web server's graceful shutdown, which would otherwise wait for the open streams to end.
+    @Override
+    public int getPhase() {
+        return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE + 1;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    // The sequence to resume after, FRESH without Last-Event-ID, or UNKNOWN for an id from another run.
+    private long resumePoint(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return FRESH;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(streamId)) {
+            return UNKNOWN;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.substring(dash + 1));
+            return sequence >= 0 && sequence <= lastSequence ? sequence : UNKNOWN;
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    private final class Subscriber {
+
+        static final OfferEventDto OPEN = new OfferEventDto(null, null, 0, null, null);
+        static final OfferEventDto GAP = new OfferEventDto(null, null, 0, null, null);
+        static final OfferEventDto HEARTBEAT = new OfferEventDto(null, null, 0, null, null);
+
+        final SseEmitter emitter;
+        final List<OfferEventDto> backlog = new ArrayList<>();
+        final Queue<OfferEventDto> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int queueSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+        }
+
+        void enqueue(OfferEventDto event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                if (event == HEARTBEAT) {
+                    return;
+                }
+                closed = true;
+                subscribers.remove(this);
+                logger.warn("Disconnecting offer event subscriber that fell {} events behind", queue.size());
+                executor.execute(emitter::complete);
+                return;
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (!backlog.isEmpty()) {
+                    for (OfferEventDto event : backlog) {
+                        send(event);
+                    }
+                    backlog.clear();
+                }
+                while (!closed) {
+                    OfferEventDto event = queue.poll();
+                    if (event == null) {
+                        scheduled.set(false);
+                        // An event may have been queued after poll() but before the flag was cleared.
+                        if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                        continue;
+                    }
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void send(OfferEventDto event) throws IOException {
+            if (event == OPEN) {
+                emitter.send(SseEmitter.event().comment("offer events").reconnectTime(RECONNECT_MILLIS));
+            } else if (event == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } else if (event == GAP) {
+                emitter.send(SseEmitter.event().name("gap").data("Some events were missed; reload offers to resynchronise"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(event.eventId())
+                        .name(event.type().name().toLowerCase(Locale.ROOT))
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+}
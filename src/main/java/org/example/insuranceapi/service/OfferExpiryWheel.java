@@ -0,0 +1,216 @@
+package org.example.insuranceapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.insuranceapi.config.ExpiryProperties;
+import org.example.insuranceapi.config.ExpiryWheelProperties;
+import org.example.insuranceapi.config.SweepLeaseProperties;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.event.OfferEventType;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.repository.PendingOffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires each offer at its own deadline instead of waiting for the next sweep. Pending offer ids sit in a
+ * {@link TimingWheel} keyed by {@code createdDate + EXPIRATION_DAYS}. The wheel is loaded from the table once
+ * the application is ready and fed by the CREATED events, and a ticker thread hands whatever has come due to
+ * {@link InsuranceService#expireOffers}. Accepted offers are not taken out of the wheel; the conditional update
+ * skips them when their deadline comes.
+ * <p>
+ * Without {@code insurance.expiry.lease.enabled} every node loads and expires every pending offer, and the
+ * conditional update makes the overlap harmless. With leases a node holds only the offers in the shards
+ * {@link ExpirySweepCoordinator} has claimed for it, and reloads the wheel on the next tick after they change;
+ * until its first sweep has claimed any it holds none. The scheduled sweep still runs, less often, and picks up
+ * offers whose shard changed hands or whose CREATED event reached a node that stopped.
+ */
+@Component
+public class OfferExpiryWheel implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferExpiryWheel.class);
+
+    private final ExpiryWheelProperties properties;
+    private final ExpiryProperties expiryProperties;
+    private final InsuranceRepository repository;
+    private final InsuranceService service;
+    private final SweepLeaseProperties leaseProperties;
+    private final ExpirySweepCoordinator coordinator;
+
+    // Replaced on reload; guarded by lock.
+    private final Object lock = new Object();
+    private TimingWheel wheel;
+    // The shards the wheel holds offers for, or null for every offer when leases are off.
+    private volatile Set<Integer> shards;
+
+    private final Counter expired;
+
+    private volatile boolean running;
+    private ScheduledExecutorService ticker;
+
+    public OfferExpiryWheel(ExpiryWheelProperties properties, ExpiryProperties expiryProperties,
+                            InsuranceRepository repository, InsuranceService service, SweepLeaseProperties leaseProperties,
+                            ExpirySweepCoordinator coordinator, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.expiryProperties = expiryProperties;
+        this.repository = repository;
+        this.service = service;
+        this.leaseProperties = leaseProperties;
+        this.coordinator = coordinator;
+        this.shards = leaseProperties.enabled() ? Set.of() : null;
+        this.wheel = new TimingWheel(properties.tick().toMillis(), System.currentTimeMillis());
+        this.expired = Counter.builder("insurance.expiry.wheel.expired")
+                .description("Offers expired at their deadline by the timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("insurance.expiry.wheel.size", this, OfferExpiryWheel::size)
+                .description("Offer deadlines held by the timing wheel")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replaces the wheel's contents with the pending offers of the shards this node holds, or every pending
+     * offer when leases are off.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int load() {
+        if (!properties.enabled()) {
+            return 0;
+        }
+        Set<Integer> owned = leaseProperties.enabled() ? coordinator.ownedShards() : null;
+        synchronized (lock) {
+            wheel = new TimingWheel(properties.tick().toMillis(), System.currentTimeMillis());
+            shards = owned;
+        }
+        if (owned != null && owned.isEmpty()) {
+            logger.info("This node holds no expiry shards, so the expiry wheel is empty");
+            return 0;
+        }
+
+        Limit batch = Limit.of(properties.loadBatchSize());
+        int loaded = 0;
+        long afterId = 0;
+        List<PendingOffer> page;
+        while (!(page = owned == null
+                ? repository.findPendingAfter(afterId, batch)
+                : repository.findPendingInShardsAfter(leaseProperties.shards(), owned, afterId, batch)).isEmpty()) {
+            for (PendingOffer offer : page) {
+                schedule(offer.id(), offer.createdDate());
+            }
+            loaded += page.size();
+            afterId = page.get(page.size() - 1).id();
+        }
+        if (owned == null) {
+            logger.info("Loaded {} pending offer deadlines into the expiry wheel", loaded);
+        } else {
+            logger.info("Loaded {} pending offer deadlines in expiry shards {} into the expiry wheel", loaded, owned);
+        }
+        return loaded;
+    }
+
+    @EventListener
+    public void onOfferEvent(OfferEvent event) {
+        if (properties.enabled() && event.type() == OfferEventType.CREATED && holds(event.offerId())) {
+            schedule(event.offerId(), event.createdDate());
+        }
+    }
+
+    public void schedule(long id, LocalDateTime createdDate) {
+        // One millisecond past the deadline, since an offer is still valid at exactly createdDate + EXPIRATION_DAYS.
+        long deadline = createdDate.plusDays(Offer.EXPIRATION_DAYS)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + 1;
+        synchronized (lock) {
+            wheel.schedule(id, deadline);
+        }
+    }
+
+    /**
+     * Advances the wheel to now and expires what has come due, in batches of {@code insurance.expiry.batch-size}.
+     * A batch that fails is put back and retried on the next tick.
+     */
+    public int tick() {
+        if (properties.enabled() && leaseProperties.enabled() && !coordinator.ownedShards().equals(shards)) {
+            load();
+        }
+        List<Long> due = new ArrayList<>();
+        synchronized (lock) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+
+        int count = 0;
+        for (int from = 0; from < due.size(); from += expiryProperties.batchSize()) {
+            List<Long> ids = due.subList(from, Math.min(due.size(), from + expiryProperties.batchSize()));
+            try {
+                count += service.expireOffers(ids);
+            } catch (RuntimeException e) {
+                logger.warn("Could not expire {} offers at their deadline, retrying on the next tick", ids.size(), e);
+                long now = System.currentTimeMillis();
+                synchronized (lock) {
+                    ids.forEach(id -> wheel.schedule(id, now));
+                }
+            }
+        }
+        expired.increment(count);
+        return count;
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return wheel.size();
+        }
+    }
+
+    private boolean holds(long id) {
+        Set<Integer> held = shards;
+        return held == null || held.contains((int) Math.floorMod(id, (long) leaseProperties.shards()));
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offer-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = properties.tick().toMillis();
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.shutdown();
+            try {
+                ticker.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ticker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
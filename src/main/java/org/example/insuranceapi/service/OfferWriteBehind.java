@@ -0,0 +1,206 @@
+package org.example.insuranceapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.insuranceapi.config.WriteBehindProperties;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.event.OfferEventType;
+import org.example.insuranceapi.exception.TooManyRequestsException;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.repository.OfferBulkWriter;
+import org.example.insuranceapi.repository.OfferIdAllocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind path for {@code createOffer}: offers get an id from a pre-allocated block and are
+ * queued, and a single writer thread commits them in groups of up to {@code batchSize} offers or whatever
+ * arrived within {@code flushInterval} of the first one. A full queue rejects the offer instead of blocking
+ * the request thread.
+ * <p>
+ * The offer is put in the {@link OfferCache} on enqueue so it can be read back at once; the CREATED event
+ * is published only after its group has committed. Offers still queued at shutdown are flushed before the
+ * data source closes. A group that fails to commit is retried and then written offer by offer, so only the
+ * offers the database refuses are lost; they are logged and counted.
+ */
+@Component
+public class OfferWriteBehind implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferWriteBehind.class);
+
+    private final WriteBehindProperties properties;
+    private final OfferIdAllocator idAllocator;
+    private final OfferBulkWriter writer;
+    private final TransactionTemplate transactions;
+    private final ApplicationEventPublisher events;
+    private final OfferCache offerCache;
+    private final BlockingQueue<Offer> queue;
+
+    private final Timer flushTimer;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public OfferWriteBehind(WriteBehindProperties properties, OfferIdAllocator idAllocator, OfferBulkWriter writer,
+                            TransactionTemplate transactions, ApplicationEventPublisher events, OfferCache offerCache,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.idAllocator = idAllocator;
+        this.writer = writer;
+        this.transactions = transactions;
+        this.events = events;
+        this.offerCache = offerCache;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.flushTimer = Timer.builder("insurance.writebehind.flush")
+                .description("Duration of one group commit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("insurance.writebehind.rejected")
+                .description("Offers rejected because the write-behind queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("insurance.writebehind.failed")
+                .description("Offers lost because the database refused them")
+                .register(meterRegistry);
+        Gauge.builder("insurance.writebehind.queue.size", queue, BlockingQueue::size)
+                .description("Offers waiting to be committed")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.enabled();
+    }
+
+    public Offer submit(Offer offer) {
+        offer.setId(idAllocator.nextId());
+        offer.setVersion(0L);
+        offerCache.put(OfferDto.from(offer));
+        if (!queue.offer(offer)) {
+            offerCache.invalidate(offer.getId());
+            rejected.increment();
+            throw new TooManyRequestsException("Offer queue is full, retry shortly");
+        }
+        return offer;
+    }
+
+    @Override
+    public void start() {
+        if (!properties.enabled()) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::drain, "offer-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flusher = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after the web server, so every offer accepted over HTTP is still flushed.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+        List<Offer> group = new ArrayList<>(properties.batchSize());
+        long flushIntervalNanos = properties.flushInterval().toNanos();
+        while (running || !queue.isEmpty()) {
+            try {
+                Offer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (group.size() < properties.batchSize()) {
+                    if (queue.drainTo(group, properties.batchSize() - group.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Offer next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!group.isEmpty()) {
+                flush(group);
+                group.clear();
+            }
+        }
+    }
+
+    // A failed group is retried once in case the failure was transient, then written one offer at a time so
+    // that only the offers the database refuses are lost.
+    void flush(List<Offer> group) {
+        if (!commit(group) && !commit(group)) {
+            logger.warn("Failed to commit {} queued offers ({} .. {}) as a group, writing them one by one", group.size(),
+                    group.get(0).getId(), group.get(group.size() - 1).getId());
+            for (Offer offer : group) {
+                if (commit(List.of(offer))) {
+                    publishCreated(offer);
+                } else {
+                    failed.increment();
+                    offerCache.invalidate(offer.getId());
+                }
+            }
+            return;
+        }
+        for (Offer offer : group) {
+            publishCreated(offer);
+        }
+    }
+
+    private boolean commit(List<Offer> offers) {
+        try {
+            flushTimer.record(() -> transactions.executeWithoutResult(status -> writer.insert(offers)));
+            return true;
+        } catch (RuntimeException e) {
+            if (offers.size() == 1) {
+                logger.error("Failed to commit queued offer {}", offers.get(0).getId(), e);
+            } else {
+                logger.debug("Group commit of {} offers failed", offers.size(), e);
+            }
+            return false;
+        }
+    }
+
+    private void publishCreated(Offer offer) {
+        events.publishEvent(new OfferEvent(OfferEventType.CREATED, offer.getId(), offer.getCreatedDate(),
+                offer.getCreatedDate(), OfferDto.from(offer)));
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.dto.RateTableDto;
+
+public interface PricingEngine {
+
+    double price(double[] loans, String personalNumber);
+
+    /**
+     * Prices {@code loans[i]} for {@code personalNumbers[i]} into {@code premiums[i]}. Every entry in one call
+     * is priced against the same rate table, even if the table is replaced while the batch runs.
+     */
+    void priceBatch(double[][] loans, String[] personalNumbers, double[] premiums);
+
+    double ageFactor(String personalNumber);
+
+    /**
+     * Increases every time the rate table is replaced, so anything derived from a premium can be keyed on it.
+     */
+    long rateTableVersion();
+
+    RateTableDto rateTable();
+
+    void replaceRateTable(RateTableDto rateTable);
+}
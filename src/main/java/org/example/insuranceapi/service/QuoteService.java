@@ -0,0 +1,93 @@
+package org.example.insuranceapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.annotation.Timed;
+import org.example.insuranceapi.config.QuoteCacheProperties;
+import org.example.insuranceapi.dto.CacheStatsDto;
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.QuoteDto;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Prices an offer without creating it. Quotes are memoised on the sorted loan amounts, the age factor
+ * and the rate table version, so customers of different ages in the same age band share entries and a
+ * replaced rate table is never served from the cache.
+ */
+@Service
+public class QuoteService {
+
+    private final PricingEngine pricingEngine;
+    private final Cache<QuoteKey, QuoteDto> cache;
+
+    public QuoteService(PricingEngine pricingEngine, QuoteCacheProperties properties) {
+        this.pricingEngine = pricingEngine;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maxSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+    }
+
+    @Timed("insurance.service")
+    public QuoteDto quote(OfferCreateDto dto) {
+        double[] loans = normalise(dto.loans());
+        String personalNumber = dto.personalNumber();
+        QuoteKey key = new QuoteKey(loans, pricingEngine.ageFactor(personalNumber), pricingEngine.rateTableVersion());
+        return cache.get(key, k -> new QuoteDto(pricingEngine.price(k.loans, personalNumber), sum(k.loans)));
+    }
+
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate() * 100);
+    }
+
+    private static double[] normalise(List<Double> loans) {
+        double[] amounts = new double[loans.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = loans.get(i);
+        }
+        Arrays.sort(amounts);
+        return amounts;
+    }
+
+    private static double sum(double[] loans) {
+        double sum = 0;
+        for (double loan : loans) {
+            sum += loan;
+        }
+        return sum;
+    }
+
+    private static final class QuoteKey {
+        private final double[] loans;
+        private final double ageFactor;
+        private final long rateTableVersion;
+        private final int hash;
+
+        QuoteKey(double[] loans, double ageFactor, long rateTableVersion) {
+            this.loans = loans;
+            this.ageFactor = ageFactor;
+            this.rateTableVersion = rateTableVersion;
+            this.hash = 31 * (31 * Arrays.hashCode(loans) + Double.hashCode(ageFactor)) + Long.hashCode(rateTableVersion);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof QuoteKey key
+                    && hash == key.hash
+                    && rateTableVersion == key.rateTableVersion
+                    && Double.compare(ageFactor, key.ageFactor) == 0
+                    && Arrays.equals(loans, key.loans);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
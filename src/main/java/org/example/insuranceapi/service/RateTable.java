@@ -0,0 +1,133 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.dto.RateTableDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, compiled form of a {@link RateTableDto}: loan bands and age bands flattened into sorted
+ * primitive arrays so pricing is a couple of linear scans with no boxing.
+ */
+public final class RateTable {
+
+    private final double[] bandLimits;
+    private final double[] bandRates;
+    private final int[] ageFrom;
+    private final double[] ageFactors;
+    private final RateTableDto source;
+    private final long version;
+
+    private RateTable(double[] bandLimits, double[] bandRates, int[] ageFrom, double[] ageFactors, RateTableDto source, long version) {
+        this.bandLimits = bandLimits;
+        this.bandRates = bandRates;
+        this.ageFrom = ageFrom;
+        this.ageFactors = ageFactors;
+        this.source = source;
+        this.version = version;
+    }
+
+    public static RateTable compile(RateTableDto dto) {
+        return compile(dto, 0);
+    }
+
+    public static RateTable compile(RateTableDto dto, long version) {
+        if (dto.loanBands() == null || dto.loanBands().isEmpty()) {
+            throw new IllegalArgumentException("At least one loan band is required");
+        }
+
+        List<RateTableDto.LoanBand> loanBands = new ArrayList<>(dto.loanBands());
+        loanBands.sort(Comparator.comparing(RateTableDto.LoanBand::upTo, Comparator.nullsLast(Comparator.naturalOrder())));
+        double[] bandLimits = new double[loanBands.size()];
+        double[] bandRates = new double[loanBands.size()];
+        for (int i = 0; i < loanBands.size(); i++) {
+            RateTableDto.LoanBand band = loanBands.get(i);
+            boolean last = i == loanBands.size() - 1;
+            if (band.rate() == null || band.rate() < 0) {
+                throw new IllegalArgumentException("Loan band rates must be zero or positive");
+            }
+            if (band.upTo() == null && !last) {
+                throw new IllegalArgumentException("Only one loan band can be unbounded");
+            }
+            if (band.upTo() != null && last) {
+                throw new IllegalArgumentException("The highest loan band must be unbounded");
+            }
+            if (i > 0 && band.upTo() != null && band.upTo().equals(loanBands.get(i - 1).upTo())) {
+                throw new IllegalArgumentException("Loan band limits must be distinct");
+            }
+            bandLimits[i] = last ? Double.POSITIVE_INFINITY : band.upTo();
+            bandRates[i] = band.rate();
+        }
+
+        List<RateTableDto.AgeBand> ageBands = dto.ageBands() == null ? new ArrayList<>() : new ArrayList<>(dto.ageBands());
+        ageBands.sort(Comparator.comparing(RateTableDto.AgeBand::fromAge));
+        int[] ageFrom = new int[ageBands.size()];
+        double[] ageFactors = new double[ageBands.size()];
+        for (int i = 0; i < ageBands.size(); i++) {
+            RateTableDto.AgeBand band = ageBands.get(i);
+            if (band.factor() == null || band.factor() <= 0) {
+                throw new IllegalArgumentException("Age factors must be positive");
+            }
+            if (i > 0 && band.fromAge().equals(ageBands.get(i - 1).fromAge())) {
+                throw new IllegalArgumentException("Age bands must start at distinct ages");
+            }
+            ageFrom[i] = band.fromAge();
+            ageFactors[i] = band.factor();
+        }
+
+        return new RateTable(bandLimits, bandRates, ageFrom, ageFactors,
+                new RateTableDto(List.copyOf(loanBands), List.copyOf(ageBands)), version);
+    }
+
+    /**
+     * Each loan is charged the rate of the band it falls in ({@code amount <= upTo}). Loans are summed per band
+     * before the rate is applied, so a single-band table gives exactly {@code sum(loans) * rate}.
+     */
+    public double price(double[] loans, int age) {
+        double premium;
+        if (bandRates.length == 1) {
+            premium = sum(loans) * bandRates[0];
+        } else {
+            premium = 0;
+            double lower = Double.NEGATIVE_INFINITY;
+            for (int band = 0; band < bandRates.length; band++) {
+                double upper = bandLimits[band];
+                double bandSum = 0;
+                for (double loan : loans) {
+                    if (loan > lower && loan <= upper) {
+                        bandSum += loan;
+                    }
+                }
+                premium += bandSum * bandRates[band];
+                lower = upper;
+            }
+        }
+        return premium * ageFactor(age);
+    }
+
+    // Ages below the first band, or unknown ages (negative), are not adjusted.
+    public double ageFactor(int age) {
+        double factor = 1.0;
+        for (int i = 0; i < ageFrom.length && ageFrom[i] <= age; i++) {
+            factor = ageFactors[i];
+        }
+        return factor;
+    }
+
+    public RateTableDto toDto() {
+        return source;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    private static double sum(double[] loans) {
+        double sum = 0;
+        for (double loan : loans) {
+            sum += loan;
+        }
+        return sum;
+    }
+}
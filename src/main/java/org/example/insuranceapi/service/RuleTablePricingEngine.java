@@ -0,0 +1,149 @@
+package org.example.insuranceapi.service;
+
+import org.example.insuranceapi.config.PricingProperties;
+import org.example.insuranceapi.dto.RateTableDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Prices offers against a compiled {@link RateTable}. The table is immutable and published through a
+ * volatile field, so replacing it is a single write and a pricing call in flight simply finishes on the
+ * table it already read.
+ */
+@Component
+public class RuleTablePricingEngine implements PricingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(RuleTablePricingEngine.class);
+
+    private final Clock clock;
+
+    private volatile RateTable rateTable;
+
+    private volatile Today today = new Today(Long.MIN_VALUE, Long.MIN_VALUE, 0);
+
+    @Autowired
+    public RuleTablePricingEngine(PricingProperties properties) {
+        this(RateTable.compile(properties.rateTable()));
+    }
+
+    public RuleTablePricingEngine(RateTable rateTable) {
+        this(rateTable, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock ages are counted from today's date in the zone of this clock
+     */
+    public RuleTablePricingEngine(RateTable rateTable, Clock clock) {
+        this.rateTable = rateTable;
+        this.clock = clock;
+    }
+
+    @Override
+    public double price(double[] loans, String personalNumber) {
+        return rateTable.price(loans, age(personalNumber, today()));
+    }
+
+    @Override
+    public void priceBatch(double[][] loans, String[] personalNumbers, double[] premiums) {
+        if (loans.length != personalNumbers.length || loans.length > premiums.length) {
+            throw new IllegalArgumentException("Loans, personal numbers and premiums must have matching lengths");
+        }
+        RateTable table = rateTable;
+        int today = today();
+        for (int i = 0; i < loans.length; i++) {
+            premiums[i] = table.price(loans[i], age(personalNumbers[i], today));
+        }
+    }
+
+    @Override
+    public double ageFactor(String personalNumber) {
+        return rateTable.ageFactor(age(personalNumber, today()));
+    }
+
+    @Override
+    public long rateTableVersion() {
+        return rateTable.version();
+    }
+
+    @Override
+    public RateTableDto rateTable() {
+        return rateTable.toDto();
+    }
+
+    @Override
+    public synchronized void replaceRateTable(RateTableDto rateTable) {
+        RateTable compiled = RateTable.compile(rateTable, this.rateTable.version() + 1);
+        this.rateTable = compiled;
+        logger.info("Replaced rate table: {} loan bands, {} age bands",
+                compiled.toDto().loanBands().size(), compiled.toDto().ageBands().size());
+    }
+
+    /**
+     * Age in whole years from a 10 or 12 digit personal number (YYMMDD... or YYYYMMDD...), or -1 if it
+     * cannot be read. A two-digit year is placed in the most recent century that does not put the birth
+     * date in the future.
+     */
+    static int age(String personalNumber, int today) {
+        if (personalNumber == null) {
+            return -1;
+        }
+        int length = personalNumber.length();
+        int birth;
+        if (length == 12) {
+            birth = digits(personalNumber, 0, 8);
+        } else if (length == 10) {
+            birth = digits(personalNumber, 0, 6);
+            if (birth >= 0) {
+                int century = today / 1_000_000 * 1_000_000;
+                birth += century;
+                if (birth > today) {
+                    birth -= 1_000_000;
+                }
+            }
+        } else {
+            return -1;
+        }
+        if (birth < 0 || birth > today) {
+            return -1;
+        }
+        // yyyyMMdd integers subtract to whole years once the month and day part is dropped.
+        return (today - birth) / 10_000;
+    }
+
+    private static int digits(String value, int from, int to) {
+        int result = 0;
+        for (int i = from; i < to; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    // Today's date only changes when the clock leaves the cached day, so most calls are one comparison.
+    private int today() {
+        long now = clock.millis();
+        Today cached = today;
+        if (now >= cached.from() && now < cached.until()) {
+            return cached.ymd();
+        }
+        ZoneId zone = clock.getZone();
+        LocalDate date = LocalDate.now(clock);
+        int ymd = date.getYear() * 10_000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        today = new Today(date.atStartOfDay(zone).toInstant().toEpochMilli(),
+                date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(), ymd);
+        return ymd;
+    }
+
+    // The day as yyyyMMdd, valid from the first up to the last millisecond of that day in the clock's zone.
+    private record Today(long from, long until, int ymd) {
+    }
+}
@@ -1,38 +1,108 @@
 package org.example.insuranceapi.service;
 
 import org.example.insuranceapi.dto.ConversionStatsDto;
-import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.dto.DailyStatsDto;
+import org.example.insuranceapi.dto.StatsConsistencyDto;
+import org.example.insuranceapi.repository.ArchivedOfferRepository;
 import org.example.insuranceapi.repository.InsuranceRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 public class StatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsService.class);
+
     private final InsuranceRepository repository;
+    private final ArchivedOfferRepository archive;
+    private final ConversionStatsEngine engine;
+    private final DailyRollupService rollups;
+    private final InsuranceService offers;
 
-    public StatsService(InsuranceRepository repository) {
+    public StatsService(InsuranceRepository repository, ArchivedOfferRepository archive, ConversionStatsEngine engine,
+                        DailyRollupService rollups, InsuranceService offers) {
         this.repository = repository;
+        this.archive = archive;
+        this.engine = engine;
+        this.rollups = rollups;
+        this.offers = offers;
     }
 
-    public ConversionStatsDto getConversionStats(int days) {
+    /**
+     * Identifies the data every stats response is computed from: the offers as of the last mutation, the daily
+     * rollups as last loaded, and the current day, since the day windows move at midnight without any offer
+     * changing.
+     */
+    public String version() {
+        return offers.mutationVersion() + "-" + rollups.generation() + "-" + LocalDate.now().toEpochDay();
+    }
 
+    @Timed("insurance.service")
+    public ConversionStatsDto getConversionStats(int days) {
         if (days <= 0) {
             throw new IllegalArgumentException("Days must be greater than zero");
         }
-        if (days > 365) {
-            throw new IllegalArgumentException("Days must be less than 365");
+        if (days <= ConversionStatsEngine.MAX_DAYS) {
+            return engine.conversionStats(days);
         }
 
-        List<Offer> allOffers = repository.findAll();
+        // Beyond the engine's window, accepted counts come from the daily rollups.
+        ConversionStatsDto recent = engine.conversionStats(1);
+        LocalDate today = LocalDate.now();
+        long acceptedWithinDays = rollups.range(today.minusDays(days - 1), today).accepted();
+        double conversionRate = recent.totalOffers() == 0 ? 0 : (acceptedWithinDays * 100.0) / recent.totalOffers();
+        return new ConversionStatsDto(recent.totalOffers(), acceptedWithinDays, conversionRate);
+    }
+
+    @Timed("insurance.service")
+    public DailyStatsDto getDailyStats(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("From must not be after to");
+        }
+        return rollups.range(from, to);
+    }
+
+    @Timed("insurance.service")
+    public StatsConsistencyDto checkConsistency(int days) {
+        validateDays(days);
+
+        LocalDateTime since = LocalDate.now().minusDays(days - 1).atStartOfDay();
 
-        long total = allOffers.size();
+        ConversionStatsDto fromEngine = engine.conversionStats(days);
+        ConversionStatsDto fromScan = scanConversionStats(since);
+        long engineCreated = engine.createdWithin(days);
+        long scanCreated = repository.countByCreatedDateGreaterThanEqual(since) + archive.countByCreatedDateGreaterThanEqual(since);
 
-        long acceptedWithinDays = allOffers.stream().filter(o -> o.getAcceptedDate() != null).filter(o -> o.getAcceptedDate().isAfter(LocalDateTime.now().minusDays(days))).count();
+        boolean consistent = fromEngine.totalOffers() == fromScan.totalOffers()
+                && fromEngine.acceptedWithinXDays() == fromScan.acceptedWithinXDays()
+                && engineCreated == scanCreated;
+
+        if (!consistent) {
+            logger.warn("Conversion stats drifted for {} days: engine={}, scan={}", days, fromEngine, fromScan);
+        }
+        return new StatsConsistencyDto(days, fromEngine, fromScan, engineCreated, scanCreated, consistent);
+    }
+
+    private ConversionStatsDto scanConversionStats(LocalDateTime since) {
+        long total = repository.count() + archive.count();
+        long acceptedWithinDays = repository.countByAcceptedDateGreaterThanEqual(since) + archive.countByAcceptedDateGreaterThanEqual(since);
 
         double conversionRate = total == 0 ? 0 : (acceptedWithinDays * 100.0) / total;
 
         return new ConversionStatsDto(total, acceptedWithinDays, conversionRate);
     }
+
+    private void validateDays(int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Days must be greater than zero");
+        }
+        if (days > ConversionStatsEngine.MAX_DAYS) {
+            throw new IllegalArgumentException("Days must be less than 365");
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package org.example.insuranceapi.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of ids keyed by a deadline. Four levels of 64 slots cover 64^4 ticks (194 days at
+ * one-second ticks); later deadlines wait in an overflow bucket. Scheduling is O(1), and an id moves down a
+ * level at most three times before it fires, so the total work per id is constant however many are pending.
+ * <p>
+ * An id sits at the lowest level whose slot range still contains both now and its deadline. Once the clock
+ * reaches the start of a higher-level slot, that slot is emptied into the levels below. Not thread-safe.
+ */
+public final class TimingWheel {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+    private final Bucket overflow = new Bucket();
+    private final Bucket overdue = new Bucket();
+
+    // The next tick to fire; every earlier tick has been processed.
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (Bucket[] level : levels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                level[slot] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * Schedules {@code id} to fire on the first tick at or after {@code deadlineMillis}; a deadline already
+     * passed fires on the next {@link #advance}.
+     */
+    public void schedule(long id, long deadlineMillis) {
+        place(id, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        size++;
+    }
+
+    /**
+     * Processes every tick up to and including the one containing {@code nowMillis}, handing each due id to
+     * {@code due}.
+     */
+    public void advance(long nowMillis, LongConsumer due) {
+        size -= overdue.drainTo(due);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick <= targetTick) {
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(levels[level][(int) ((currentTick >>> (BITS * level)) & MASK)]);
+                    if (level == LEVELS - 1) {
+                        cascade(overflow);
+                    }
+                }
+            }
+            size -= levels[0][(int) (currentTick & MASK)].drainTo(due);
+            currentTick++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(long id, long tick) {
+        if (tick < currentTick) {
+            overdue.add(id, tick);
+            return;
+        }
+        long differing = tick ^ currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if ((differing >>> (BITS * (level + 1))) == 0) {
+                levels[level][(int) ((tick >>> (BITS * level)) & MASK)].add(id, tick);
+                return;
+            }
+        }
+        overflow.add(id, tick);
+    }
+
+    private void cascade(Bucket bucket) {
+        int count = bucket.size;
+        long[] ids = bucket.ids;
+        long[] ticks = bucket.ticks;
+        bucket.reset();
+        for (int i = 0; i < count; i++) {
+            place(ids[i], ticks[i]);
+        }
+    }
+
+    private static final class Bucket {
+        private static final long[] EMPTY = new long[0];
+
+        long[] ids = EMPTY;
+        long[] ticks = EMPTY;
+        int size;
+
+        void add(long id, long tick) {
+            if (size == ids.length) {
+                int capacity = Math.max(8, size * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            ids[size] = id;
+            ticks[size] = tick;
+            size++;
+        }
+
+        int drainTo(LongConsumer consumer) {
+            int count = size;
+            long[] drained = ids;
+            reset();
+            for (int i = 0; i < count; i++) {
+                consumer.accept(drained[i]);
+            }
+            return count;
+        }
+
+        // Hands the arrays to the caller and starts over, so a drained slot does not keep its peak capacity.
+        void reset() {
+            ids = EMPTY;
+            ticks = EMPTY;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.insuranceapi.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One token bucket per key, refilled at {@code ratePerSecond} up to {@code burst} tokens. Keys are spread over
+ * lock stripes; each stripe keeps its buckets in access order, so the least recently used sit at the head.
+ * <p>
+ * A bucket that has refilled completely is the same as no bucket at all. Such buckets are dropped from the head
+ * on every call, so memory follows the keys active within the last {@code burst / ratePerSecond} seconds. If a
+ * stripe still grows past {@code maxKeysPerStripe}, its least recently used bucket goes regardless, which can
+ * only let that key through sooner.
+ */
+public final class TokenBucketLimiter {
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes;
+
+    public TokenBucketLimiter(double ratePerSecond, int burst, int stripes, int maxKeysPerStripe) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.maxKeysPerStripe = maxKeysPerStripe;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key}.
+     *
+     * @return 0 if the token was taken, otherwise the nanoseconds until one will be available
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        return tryAcquire(key, 1, nowNanos);
+    }
+
+    /**
+     * Takes {@code permits} tokens from the bucket of {@code key}, or none if there are fewer. More than
+     * {@code burst} permits are never available.
+     *
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until enough will be available
+     */
+    public long tryAcquire(String key, int permits, long nowNanos) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        stripe.lock.lock();
+        try {
+            evictFull(stripe, nowNanos);
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(burst, nowNanos);
+                stripe.buckets.put(key, bucket);
+                if (stripe.buckets.size() > maxKeysPerStripe) {
+                    Iterator<Bucket> eldest = stripe.buckets.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            } else {
+                bucket.tokens = level(bucket, nowNanos);
+                bucket.refilledAt = nowNanos;
+            }
+
+            if (bucket.tokens >= permits) {
+                bucket.tokens -= permits;
+                return 0;
+            }
+            return (long) Math.ceil((permits - bucket.tokens) / tokensPerNano);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back tokens taken by {@link #tryAcquire} for work that was not done after all.
+     */
+    public void release(String key, int permits) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode(), stripes.length)];
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket != null) {
+                bucket.tokens = Math.min(burst, bucket.tokens + permits);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.buckets.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private double level(Bucket bucket, long nowNanos) {
+        return Math.min(burst, bucket.tokens + (nowNanos - bucket.refilledAt) * tokensPerNano);
+    }
+
+    private void evictFull(Stripe stripe, long nowNanos) {
+        Iterator<Bucket> head = stripe.buckets.values().iterator();
+        while (head.hasNext() && level(head.next(), nowNanos) >= burst) {
+            head.remove();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+create sequence offers_seq start with 1 increment by 50;
+
+create table offers (
+    id              bigint           not null,
+    personal_number varchar(255)     not null,
+    loans           varbinary(32768),
+    monthly_amount  double precision not null,
+    premium         double precision not null,
+    status          varchar(20),
+    created_date    timestamp(6),
+    updated_time    timestamp(6),
+    accepted_date   timestamp(6),
+    version         bigint,
+    primary key (id)
+);
+
+create table idempotency_keys (
+    idempotency_key varchar(255) not null,
+    fingerprint     varchar(512) not null,
+    status          integer      not null,
+    location        varchar(255),
+    content_type    varchar(255),
+    body            blob,
+    created_at      timestamp(6) not null,
+    primary key (idempotency_key)
+);
+
+create table daily_offer_stats (
+    stats_day        date             not null,
+    created          bigint           not null,
+    accepted         bigint           not null,
+    expired          bigint           not null,
+    premium_created  double precision not null,
+    premium_accepted double precision not null,
+    primary key (stats_day)
+);
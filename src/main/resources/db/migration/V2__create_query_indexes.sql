@@ -0,0 +1,17 @@
+-- Expiry sweep: pending offers past the cutoff, oldest first.
+create index idx_offers_status_created_date on offers (status, created_date);
+
+-- Search pages filtered by status, in id order.
+create index idx_offers_status_id on offers (status, id);
+
+-- Per-customer lookups, in id order.
+create index idx_offers_personal_number_id on offers (personal_number, id);
+
+-- Created-per-day stats and rollups, and date-bounded search pages.
+create index idx_offers_created_date_id on offers (created_date, id);
+
+-- Accepted-per-day stats and rollups.
+create index idx_offers_accepted_date on offers (accepted_date);
+
+-- Purge of expired idempotency keys.
+create index idx_idempotency_keys_created_at on idempotency_keys (created_at);
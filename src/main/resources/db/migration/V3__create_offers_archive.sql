@@ -0,0 +1,19 @@
+-- Cold tier for offers in a terminal state. Same columns as offers minus the version, which nothing checks once an offer is archived.
+create table offers_archive (
+    id              bigint           not null,
+    personal_number varchar(255)     not null,
+    loans           varbinary(32768),
+    monthly_amount  double precision not null,
+    premium         double precision not null,
+    status          varchar(20)      not null,
+    created_date    timestamp(6),
+    updated_time    timestamp(6),
+    accepted_date   timestamp(6),
+    archived_date   timestamp(6)     not null,
+    primary key (id)
+);
+
+create index idx_offers_archive_personal_number_id on offers_archive (personal_number, id);
+create index idx_offers_archive_status_id on offers_archive (status, id);
+create index idx_offers_archive_created_date on offers_archive (created_date);
+create index idx_offers_archive_accepted_date on offers_archive (accepted_date);
@@ -0,0 +1,16 @@
+-- One row per shard of a clustered job. A node may run a shard while it is the owner and expires_at is in the future.
+create table sweep_leases (
+    lease_name varchar(64)  not null,
+    shard      integer      not null,
+    owner      varchar(128),
+    expires_at timestamp(6) not null,
+    primary key (lease_name, shard)
+);
+
+-- Nodes taking part in a clustered job, renewed every tick, so shards can be split evenly among them.
+create table sweep_nodes (
+    lease_name varchar(64)  not null,
+    node_id    varchar(128) not null,
+    expires_at timestamp(6) not null,
+    primary key (lease_name, node_id)
+);
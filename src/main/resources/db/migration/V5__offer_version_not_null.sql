@@ -0,0 +1,4 @@
+-- The conditional updates bump version with version + 1, which leaves a null version null and breaks If-Match.
+update offers set version = 0 where version is null;
+alter table offers alter column version set default 0;
+alter table offers alter column version set not null;
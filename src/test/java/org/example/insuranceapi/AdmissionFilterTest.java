@@ -0,0 +1,159 @@
+package org.example.insuranceapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.service.InsuranceService;
+import org.example.insuranceapi.service.TokenBucketLimiter;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "insurance.admission.enabled=true",
+        "insurance.admission.customer-rate=0.01",
+        "insurance.admission.customer-burst=2",
+        "insurance.admission.client-rate=0.01",
+        "insurance.admission.client-burst=5",
+        "insurance.admission.trusted-proxies=10.0.0.100"})
+@AutoConfigureMockMvc
+class AdmissionFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private InsuranceService service;
+
+    @Test
+    void shouldRejectOffersForABusyPersonalNumberBeforeTheService() throws Exception {
+        Mockito.when(service.createOffer(any(OfferCreateDto.class))).thenReturn(new Offer(1, "199010101234", List.of(5000.0), 50.0));
+        String busy = objectMapper.writeValueAsString(new OfferCreateDto("199010101234", List.of(5000.0), 50.0));
+        String other = objectMapper.writeValueAsString(new OfferCreateDto("198505051234", List.of(5000.0), 50.0));
+
+        for (int i = 0; i < 2; i++) {
+            create("10.0.0.1", busy).andExpect(status().isCreated());
+        }
+        create("10.0.0.1", busy)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"));
+        create("10.0.0.1", other).andExpect(status().isCreated());
+
+        Mockito.verify(service, Mockito.times(3)).createOffer(any(OfferCreateDto.class));
+    }
+
+    @Test
+    void shouldChargeEveryOfferOfABatchToItsPersonalNumber() throws Exception {
+        Mockito.when(service.createOffers(Mockito.anyList())).thenAnswer(invocation -> invocation.<List<OfferCreateDto>>getArgument(0)
+                .stream()
+                .map(dto -> new Offer(1, dto.personalNumber(), dto.loans(), dto.monthlyPayment()))
+                .toList());
+        Mockito.when(service.createOffer(any(OfferCreateDto.class))).thenReturn(new Offer(2, "197002021234", List.of(5000.0), 50.0));
+        OfferCreateDto first = new OfferCreateDto("197001011234", List.of(5000.0), 50.0);
+        OfferCreateDto second = new OfferCreateDto("197002021234", List.of(5000.0), 50.0);
+        OfferCreateDto third = new OfferCreateDto("197003031234", List.of(5000.0), 50.0);
+
+        createBatch("10.0.0.4", List.of(first, first, second)).andExpect(status().isOk());
+        // The first personal number is spent, so the whole batch is refused and the second gets its token back.
+        createBatch("10.0.0.4", List.of(second, first)).andExpect(status().isTooManyRequests());
+        create("10.0.0.4", objectMapper.writeValueAsString(second)).andExpect(status().isCreated());
+        createBatch("10.0.0.4", List.of(third, third, third)).andExpect(status().isBadRequest());
+
+        Mockito.verify(service, Mockito.times(1)).createOffers(Mockito.anyList());
+    }
+
+    @Test
+    void shouldRejectAClientOverItsBurstAndLeaveOthersAlone() throws Exception {
+        Mockito.when(service.getOffer(1L)).thenReturn(OfferDto.from(new Offer(1, "199010101234", List.of(5000.0), 50.0)));
+
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.2"))).andExpect(status().isOk());
+        }
+        mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.2"))).andExpect(status().isTooManyRequests());
+        // A client header from a caller that is not a trusted proxy does not buy a fresh bucket.
+        mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.2")).header("X-Client-Id", "someone-else"))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.2")).principal(() -> "partner-b")).andExpect(status().isOk());
+        mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.3"))).andExpect(status().isOk());
+
+        Mockito.verify(service, Mockito.times(7)).getOffer(1L);
+    }
+
+    @Test
+    void shouldTakeTheClientFromTheHeaderOnlyBehindATrustedProxy() throws Exception {
+        Mockito.when(service.getOffer(1L)).thenReturn(OfferDto.from(new Offer(1, "199010101234", List.of(5000.0), 50.0)));
+
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.100")).header("X-Client-Id", "partner-e"))
+                    .andExpect(status().isOk());
+        }
+        mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.100")).header("X-Client-Id", "partner-e"))
+                .andExpect(status().isTooManyRequests());
+        mvc.perform(get("/api/v1/offers/1").with(from("10.0.0.100")).header("X-Client-Id", "partner-f"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(service, Mockito.times(6)).getOffer(1L);
+    }
+
+    @Test
+    void limiterShouldForgetRefilledBucketsAndStayWithinItsKeyLimit() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 2, 1, 2);
+
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("a", 0));
+        assertEquals(second, limiter.tryAcquire("a", 0));
+        assertEquals(0, limiter.tryAcquire("b", 0));
+        assertEquals(2, limiter.size());
+
+        // After two seconds both buckets are full again and dropped; only the new key remains.
+        assertEquals(0, limiter.tryAcquire("c", 2 * second));
+        assertEquals(1, limiter.size());
+
+        limiter.tryAcquire("d", 2 * second);
+        limiter.tryAcquire("e", 2 * second);
+        assertEquals(2, limiter.size());
+    }
+
+    private static RequestPostProcessor from(String remoteAddress) {
+        return request -> {
+            request.setRemoteAddr(remoteAddress);
+            return request;
+        };
+    }
+
+    private ResultActions createBatch(String remoteAddress, List<OfferCreateDto> offers) throws Exception {
+        return mvc.perform(post("/api/v1/offers/batch")
+                .with(from(remoteAddress))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(offers)));
+    }
+
+    private ResultActions create(String remoteAddress, String body) throws Exception {
+        return mvc.perform(post("/api/v1/offers")
+                .with(from(remoteAddress))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.insuranceapi;
+
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.service.InsuranceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("benchmark")
+@SpringBootTest(properties = "insurance.expiry.cron=-")
+class BatchCreateBenchmarkTest {
+
+    private static final int OFFERS = 5_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private InsuranceService service;
+
+    @Autowired
+    private InsuranceRepository repository;
+
+    private List<OfferCreateDto> dtos;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        dtos = IntStream.range(0, OFFERS)
+                .mapToObj(i -> new OfferCreateDto("19901010" + String.format("%04d", i % 10_000), List.of(100_000.0, 250_000.0, 50_000.0), 950.0))
+                .toList();
+    }
+
+    @Test
+    void compareSingleAndBatchCreate() {
+        // warm-up
+        dtos.subList(0, 500).forEach(service::createOffer);
+        service.createOffers(dtos.subList(0, 500));
+
+        long single = 0;
+        long batch = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            dtos.forEach(service::createOffer);
+            single += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            service.createOffers(dtos);
+            batch += System.nanoTime() - start;
+        }
+
+        assertEquals(1_000 + 2L * OFFERS * ROUNDS, repository.count());
+        System.out.printf("single-offer path: %,.0f offers/s%n", OFFERS * ROUNDS / (single / 1e9));
+        System.out.printf("batch path:        %,.0f offers/s%n", OFFERS * ROUNDS / (batch / 1e9));
+    }
+}
@@ -1,10 +1,19 @@
 package org.example.insuranceapi;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.insuranceapi.dto.AcceptOutcome;
 import org.example.insuranceapi.dto.ConversionStatsDto;
+import org.example.insuranceapi.dto.OfferAcceptItemDto;
+import org.example.insuranceapi.dto.OfferAcceptResultDto;
 import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.dto.OfferPageDto;
+import org.example.insuranceapi.dto.OfferSummaryDto;
+import org.example.insuranceapi.exception.OfferNotFound;
+import org.example.insuranceapi.exception.TooManyRequestsException;
 import org.example.insuranceapi.model.Offer;
 import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.OfferSearchCriteria;
 import org.example.insuranceapi.service.InsuranceService;
 import org.example.insuranceapi.service.StatsService;
 import org.junit.jupiter.api.BeforeEach;
@@ -23,8 +32,11 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -70,11 +82,139 @@ class InsuranceControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void shouldCreateOffersInBatchAndReportInvalidItems() throws Exception {
+        OfferCreateDto invalid = new OfferCreateDto("abc", List.of(5000.0), 50.0);
+        String requestBody = objectMapper.writeValueAsString(List.of(dto, invalid, dto));
+
+        Offer second = new Offer(2, "199010101234", List.of(5000.0), 50.0);
+        Mockito.when(service.createOffers(List.of(dto, dto))).thenReturn(List.of(dummyOffer, second));
+
+        mvc.perform(post(API_CONTEXT_ROOT + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[1].errors.personalNumber").exists())
+                .andExpect(jsonPath("$.items[2].id").value(2));
+    }
+
+    @Test
+    void shouldRejectEmptyBatch() throws Exception {
+        mvc.perform(post(API_CONTEXT_ROOT + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldGetOffer() throws Exception {
+        dummyOffer.setStatus(OfferStatus.PENDING);
+        Mockito.when(service.getOffer(offerId)).thenReturn(OfferDto.from(dummyOffer));
+
+        mvc.perform(get(API_CONTEXT_ROOT + "/" + offerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andExpect(jsonPath("$.loans[0]").value(5000.0));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFields() throws Exception {
+        dummyOffer.setStatus(OfferStatus.PENDING);
+        Mockito.when(service.getOffer(offerId)).thenReturn(OfferDto.from(dummyOffer));
+
+        mvc.perform(get(API_CONTEXT_ROOT + "/" + offerId).param("fields", "status, id"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"status\":\"PENDING\"}", true));
+        mvc.perform(get(API_CONTEXT_ROOT + "/" + offerId).param("fields", "id,version"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownOffer() throws Exception {
+        Mockito.when(service.getOffer(99L)).thenThrow(new OfferNotFound("Could not find offer with id: 99"));
+
+        mvc.perform(get(API_CONTEXT_ROOT + "/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldSearchOffers() throws Exception {
+        OfferSummaryDto summary = new OfferSummaryDto(1, "199010101234", 50.0, 190.0, OfferStatus.PENDING, null, null);
+        OfferSearchCriteria criteria = new OfferSearchCriteria("199010101234", OfferStatus.PENDING, null, null);
+        Mockito.when(service.searchOffers(criteria, 0, 1, false)).thenReturn(new OfferPageDto(List.of(summary), 1L));
+
+        mvc.perform(get(API_CONTEXT_ROOT)
+                        .param("personalNumber", "199010101234")
+                        .param("status", "PENDING")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].loans").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value(1));
+    }
+
+    @Test
+    void shouldReplayCreateWithSameIdempotencyKey() throws Exception {
+        String requestBody = objectMapper.writeValueAsString(dto);
+        Mockito.when(service.createOffer(any(OfferCreateDto.class))).thenReturn(dummyOffer);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mvc.perform(post(API_CONTEXT_ROOT)
+                            .header("Idempotency-Key", "create-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(requestBody))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Location", "/api/v1/offers/1"));
+        }
+
+        Mockito.verify(service, Mockito.times(1)).createOffer(any(OfferCreateDto.class));
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedWithDifferentBody() throws Exception {
+        Mockito.when(service.createOffer(any(OfferCreateDto.class))).thenReturn(dummyOffer);
+
+        mvc.perform(post(API_CONTEXT_ROOT)
+                        .header("Idempotency-Key", "create-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated());
+        mvc.perform(post(API_CONTEXT_ROOT)
+                        .header("Idempotency-Key", "create-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new OfferCreateDto("198001011234", List.of(5000.0), 80.0))))
+                .andExpect(status().isUnprocessableEntity());
+
+        Mockito.verify(service, Mockito.times(1)).createOffer(any(OfferCreateDto.class));
+    }
+
+    @Test
+    void shouldReplayAcceptWithSameIdempotencyKeyAndRejectReuseOnOtherRequest() throws Exception {
+        dummyOffer.setStatus(OfferStatus.ACCEPTED);
+        Mockito.when(service.acceptOffer(offerId)).thenReturn(dummyOffer);
+
+        mvc.perform(post(API_CONTEXT_ROOT + "/" + offerId + "/accept").header("Idempotency-Key", "accept-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        mvc.perform(post(API_CONTEXT_ROOT + "/" + offerId + "/accept").header("Idempotency-Key", "accept-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.status").value("ACCEPTED"));
+        mvc.perform(post(API_CONTEXT_ROOT + "/2/accept").header("Idempotency-Key", "accept-1"))
+                .andExpect(status().isUnprocessableEntity());
+
+        Mockito.verify(service, Mockito.times(1)).acceptOffer(offerId);
+    }
+
     @Test
     void shouldUpdateOffer() throws Exception {
         String requestBody = objectMapper.writeValueAsString(dto);
 
-        Mockito.when(service.updateOffer(eq(offerId), any(OfferCreateDto.class))).thenReturn(dummyOffer);
+        Mockito.when(service.updateOffer(eq(offerId), any(OfferCreateDto.class), isNull())).thenReturn(dummyOffer);
 
         mvc.perform(put(API_CONTEXT_ROOT + "/" + offerId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -82,6 +222,41 @@ class InsuranceControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void shouldAnswerNotModifiedForCurrentOfferETag() throws Exception {
+        dummyOffer.setVersion(3L);
+        Mockito.when(service.getOffer(offerId)).thenReturn(OfferDto.from(dummyOffer));
+
+        mvc.perform(get(API_CONTEXT_ROOT + "/" + offerId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v3\""));
+        mvc.perform(get(API_CONTEXT_ROOT + "/" + offerId).header("If-None-Match", "\"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mvc.perform(get(API_CONTEXT_ROOT + "/" + offerId).header("If-None-Match", "\"v2\""))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldPassIfMatchVersionToUpdate() throws Exception {
+        String requestBody = objectMapper.writeValueAsString(dto);
+        Offer updated = new Offer(1, "199010101234", List.of(5000.0), 50.0);
+        updated.setVersion(4L);
+        Mockito.when(service.updateOffer(eq(offerId), any(OfferCreateDto.class), eq(3L))).thenReturn(updated);
+
+        mvc.perform(put(API_CONTEXT_ROOT + "/" + offerId)
+                        .header("If-Match", "\"v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v4\""));
+        mvc.perform(put(API_CONTEXT_ROOT + "/" + offerId)
+                        .header("If-Match", "W/\"v3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void shouldAcceptOffer() throws Exception {
 
@@ -91,10 +266,33 @@ class InsuranceControllerTest {
 
         mvc.perform(post(API_CONTEXT_ROOT + "/" + offerId + "/accept"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.status").value("ACCEPTED"));
+                .andExpect(jsonPath("$.status").value("ACCEPTED"))
+                .andExpect(jsonPath("$.loans").doesNotExist())
+                .andExpect(jsonPath("$.personalNumber").doesNotExist());
     }
 
 
+    @Test
+    void shouldAcceptOffersInBulk() throws Exception {
+        OfferAcceptResultDto result = new OfferAcceptResultDto(1, 1, List.of(
+                new OfferAcceptItemDto(1, AcceptOutcome.ACCEPTED, null),
+                new OfferAcceptItemDto(2, AcceptOutcome.NOT_FOUND, "Could not find offer with id: 2")));
+        Mockito.when(service.acceptOffers(List.of(1L, 2L))).thenReturn(result);
+
+        mvc.perform(post(API_CONTEXT_ROOT + "/accept")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.items[0].outcome").value("ACCEPTED"))
+                .andExpect(jsonPath("$.items[0].error").doesNotExist())
+                .andExpect(jsonPath("$.items[1].outcome").value("NOT_FOUND"));
+        mvc.perform(post(API_CONTEXT_ROOT + "/accept")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldReturnConversionStats() throws Exception {
         ConversionStatsDto stats = new ConversionStatsDto(100, 25, 25.0);
@@ -106,4 +304,48 @@ class InsuranceControllerTest {
                 .andExpect(jsonPath("$.acceptedWithinXDays").value(25));
     }
 
+    @Test
+    void shouldAnswerNotModifiedForStatsWithoutRecomputing() throws Exception {
+        Mockito.when(statsService.version()).thenReturn("m1-7-20000");
+
+        mvc.perform(get("/api/v1/stats/conversion").header("If-None-Match", "\"m1-7-20000\""))
+                .andExpect(status().isNotModified());
+        Mockito.verify(statsService, Mockito.never()).getConversionStats(Mockito.anyInt());
+
+        Mockito.when(statsService.version()).thenReturn("m1-8-20000");
+        Mockito.when(statsService.getConversionStats(30)).thenReturn(new ConversionStatsDto(100, 25, 25.0));
+        mvc.perform(get("/api/v1/stats/conversion").header("If-None-Match", "\"m1-7-20000\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"m1-8-20000\""));
+    }
+
+
+    @Test
+    void shouldQuoteWithoutCreatingOffer() throws Exception {
+        mvc.perform(post("/api/v1/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.premium").value(5000.0 * 0.038))
+                .andExpect(jsonPath("$.insuredAmount").value(5000.0));
+
+        mvc.perform(post("/api/v1/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new OfferCreateDto("abc", List.of(5000.0), 50.0))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.personalNumber").exists());
+
+        Mockito.verifyNoInteractions(service);
+    }
+
+    @Test
+    void shouldAnswerTooManyRequestsWhenOfferQueueIsFull() throws Exception {
+        Mockito.when(service.createOffer(any(OfferCreateDto.class))).thenThrow(new TooManyRequestsException("Offer queue is full, retry shortly"));
+
+        mvc.perform(post(API_CONTEXT_ROOT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
 }
@@ -1,27 +1,68 @@
 package org.example.insuranceapi;
 
+import org.example.insuranceapi.config.ExpiryProperties;
+import org.example.insuranceapi.dto.AcceptOutcome;
+import org.example.insuranceapi.dto.OfferAcceptItemDto;
+import org.example.insuranceapi.dto.OfferAcceptResultDto;
 import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.dto.RateTableDto;
+import org.example.insuranceapi.event.OfferEvent;
 import org.example.insuranceapi.exception.ConflictException;
+import org.example.insuranceapi.exception.PreconditionFailedException;
+import org.example.insuranceapi.model.ArchivedOffer;
 import org.example.insuranceapi.model.Offer;
 import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.ArchivedOfferRepository;
 import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.repository.LockedAccept;
+import org.example.insuranceapi.repository.OfferState;
 import org.example.insuranceapi.service.InsuranceService;
+import org.example.insuranceapi.service.OfferWriteBehind;
+import org.example.insuranceapi.service.PricingEngine;
+import org.example.insuranceapi.service.RateTable;
+import org.example.insuranceapi.service.RuleTablePricingEngine;
 import org.example.insuranceapi.service.StatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class InsuranceServiceUnitTest {
     @Mock
     private InsuranceRepository repository;
 
+    @Mock
+    private ArchivedOfferRepository archive;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @Spy
+    private PricingEngine pricingEngine = new RuleTablePricingEngine(
+            RateTable.compile(new RateTableDto(List.of(new RateTableDto.LoanBand(null, 0.038)), List.of())));
+
+    @Mock
+    private OfferWriteBehind writeBehind;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private InsuranceService service;
 
@@ -57,17 +98,30 @@ public class InsuranceServiceUnitTest {
         assertEquals(OfferStatus.PENDING, savedOffer.getStatus());
     }
 
+    @Test
+    void updateOffer_shouldRejectStaleIfMatchVersionWithoutSaving() {
+        when(repository.updateIfVersion(eq(1L), eq(3L), any(Offer.class))).thenReturn(Optional.empty());
+        when(repository.existsById(1L)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class,
+                () -> service.updateOffer(1L, new OfferCreateDto("199010101234", List.of(1000.0), 30.0), 3L));
+        verify(repository, never()).save(any(Offer.class));
+        verifyNoInteractions(events);
+    }
+
     @Test
     void acceptOffer_shouldChangeStatusToAccepted() {
-        dummyOffer.setStatus(OfferStatus.PENDING);
+        dummyOffer.setStatus(OfferStatus.ACCEPTED);
+        dummyOffer.setAcceptedDate(LocalDateTime.now());
 
-        when(repository.findById(1L)).thenReturn(Optional.of(dummyOffer));
-        when(repository.save(dummyOffer)).thenReturn(dummyOffer);
+        when(repository.acceptPending(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(Optional.of(dummyOffer));
 
         Offer result = service.acceptOffer(1L);
 
         assertEquals(OfferStatus.ACCEPTED, result.getStatus());
-        verify(repository).save(dummyOffer);
+        verify(repository).acceptPending(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(repository, never()).findById(any());
+        verify(repository, never()).save(any(Offer.class));
     }
 
     @Test
@@ -92,6 +146,17 @@ public class InsuranceServiceUnitTest {
         assertEquals("Offer has already been accepted", exception.getMessage());
     }
 
+    @Test
+    void acceptOffer_shouldThrowConflictException_whenOfferWasArchived() {
+        ArchivedOffer archived = mock(ArchivedOffer.class);
+        when(archived.getStatus()).thenReturn(OfferStatus.EXPIRED);
+        when(repository.findById(7L)).thenReturn(Optional.empty());
+        when(archive.findById(7L)).thenReturn(Optional.of(archived));
+
+        ConflictException exception = assertThrows(ConflictException.class, () -> service.acceptOffer(7L));
+        assertEquals("Offer with id: 7 has expired", exception.getMessage());
+    }
+
     @Test
     void acceptOffer_shouldThrowExceptionWhenOfferExpired() {
         Offer expiredOffer = new Offer(1L, "199010101234", List.of(1000.0), 30.0);
@@ -107,4 +172,79 @@ public class InsuranceServiceUnitTest {
         assertTrue(exception.getMessage().contains("expired") ||
                 exception.getMessage().contains("Expired"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createOffer_shouldPriceWithTieredRatesAndAgeFactor() {
+        pricingEngine.replaceRateTable(new RateTableDto(
+                List.of(new RateTableDto.LoanBand(null, 0.02), new RateTableDto.LoanBand(10_000.0, 0.05)),
+                List.of(new RateTableDto.AgeBand(0, 1.0), new RateTableDto.AgeBand(65, 1.5))));
+        when(repository.save(any(Offer.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Offer young = service.createOffer(new OfferCreateDto("200001011234", List.of(5000.0, 20_000.0), 50.0));
+        Offer senior = service.createOffer(new OfferCreateDto("4001011234", List.of(5000.0, 20_000.0), 50.0));
+
+        assertEquals(5000.0 * 0.05 + 20_000.0 * 0.02, young.getPremium(), 1e-9);
+        assertEquals((5000.0 * 0.05 + 20_000.0 * 0.02) * 1.5, senior.getPremium(), 1e-9);
+    }
+
+    @Test
+    void createOffers_shouldPriceBatchLikeSingleOffers() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Offer> created = service.createOffers(List.of(createDto, new OfferCreateDto("199010101234", List.of(1000.0, 2000.0), 30.0)));
+
+        assertEquals(5000.0 * 0.038, created.get(0).getPremium());
+        assertEquals(3000.0 * 0.038, created.get(1).getPremium());
+        verify(pricingEngine).priceBatch(any(), any(), any());
+    }
+
+    @Test
+    void replaceRateTable_shouldRejectBoundedTopBand() {
+        assertThrows(IllegalArgumentException.class, () -> pricingEngine.replaceRateTable(
+                new RateTableDto(List.of(new RateTableDto.LoanBand(10_000.0, 0.05)), List.of())));
+        assertEquals(0.038, pricingEngine.price(new double[]{1.0}, "199010101234"));
+    }
+
+    @Test
+    void ageFactor_shouldCountAgeFromTodayInTheClockZone() {
+        RateTable rates = RateTable.compile(new RateTableDto(List.of(new RateTableDto.LoanBand(null, 0.038)),
+                List.of(new RateTableDto.AgeBand(0, 1.0), new RateTableDto.AgeBand(26, 2.0))));
+        // Already the 26th birthday in Stockholm, still the day before in UTC.
+        Instant instant = Instant.parse("2026-01-01T23:30:00Z");
+
+        assertEquals(2.0, new RuleTablePricingEngine(rates, Clock.fixed(instant, ZoneId.of("Europe/Stockholm"))).ageFactor("200001021234"));
+        assertEquals(1.0, new RuleTablePricingEngine(rates, Clock.fixed(instant, ZoneOffset.UTC)).ageFactor("200001021234"));
+    }
+
+    @Test
+    void checkForExpiredOffers_shouldNotPublishForOffersTheWheelAlreadyExpired() {
+        InsuranceService sweeper = new InsuranceService(repository, archive, new ExpiryProperties("-", 2), events, null,
+                pricingEngine, writeBehind, new SimpleMeterRegistry());
+        when(repository.findIdsByStatusCreatedBefore(eq(OfferStatus.PENDING), any(), any()))
+                .thenReturn(List.of(1L, 2L), List.of());
+        when(repository.expireDue(eq(List.of(1L, 2L)), any())).thenReturn(List.of());
+
+        assertEquals(0, sweeper.checkForExpiredOffers());
+
+        verify(repository).expireDue(eq(List.of(1L, 2L)), any());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void acceptOffers_shouldPublishTheRowsTheUpdateReturned() {
+        Offer acceptedRow = new Offer(1L, "199010101234", List.of(5000.0), 50.0);
+        acceptedRow.setStatus(OfferStatus.ACCEPTED);
+        acceptedRow.setCreatedDate(dummyOffer.getCreatedDate());
+        acceptedRow.setAcceptedDate(LocalDateTime.now());
+        acceptedRow.setVersion(1L);
+        when(repository.acceptAllPendingLocked(any(), any(), any())).thenReturn(new LockedAccept(
+                List.of(new OfferState(1L, OfferStatus.PENDING, dummyOffer.getCreatedDate())), List.of(acceptedRow)));
+
+        OfferAcceptResultDto result = service.acceptOffers(List.of(1L, 1L));
+
+        assertEquals(List.of(AcceptOutcome.ACCEPTED, AcceptOutcome.CONFLICT), result.items().stream().map(OfferAcceptItemDto::outcome).toList());
+        ArgumentCaptor<OfferEvent> published = ArgumentCaptor.forClass(OfferEvent.class);
+        verify(events).publishEvent(published.capture());
+        assertEquals(OfferDto.from(acceptedRow), published.getValue().offer());
+    }
+}
@@ -4,25 +4,67 @@ package org.example.insuranceapi;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
 import jakarta.validation.ValidatorFactory;
+import org.example.insuranceapi.config.IdempotencyProperties;
+import org.example.insuranceapi.dto.AcceptOutcome;
+import org.example.insuranceapi.dto.CacheStatsDto;
+import org.example.insuranceapi.dto.DailyStatsDto;
+import org.example.insuranceapi.dto.ConversionStatsDto;
+import org.example.insuranceapi.dto.OfferAcceptResultDto;
 import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.dto.OfferPageDto;
+import org.example.insuranceapi.dto.OfferSummaryDto;
+import org.example.insuranceapi.dto.QuoteDto;
+import org.example.insuranceapi.dto.StatsConsistencyDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.event.OfferEventType;
+import org.example.insuranceapi.exception.ConflictException;
+import org.example.insuranceapi.exception.PreconditionFailedException;
+import org.example.insuranceapi.model.DailyOfferStats;
 import org.example.insuranceapi.model.Offer;
 import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.ArchivedOfferRepository;
+import org.example.insuranceapi.repository.DailyOfferStatsRepository;
+import org.example.insuranceapi.repository.IdempotencyRepository;
 import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.repository.OfferSearchCriteria;
+import org.example.insuranceapi.repository.QueryPlanCheck;
+import org.example.insuranceapi.service.ConversionStatsEngine;
+import org.example.insuranceapi.service.DailyRollupService;
+import org.example.insuranceapi.service.IdempotencyStore;
 import org.example.insuranceapi.service.InsuranceService;
+import org.example.insuranceapi.service.OfferArchiver;
+import org.example.insuranceapi.service.OfferCache;
+import org.example.insuranceapi.service.OfferExpiryWheel;
+import org.example.insuranceapi.service.QuoteService;
+import org.example.insuranceapi.service.StatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import jakarta.validation.Validator;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"insurance.expiry.batch-size=2", "insurance.archive.batch-size=2"})
 @ActiveProfiles("test")
 public class IntegrationTest {
 
@@ -31,11 +73,36 @@ public class IntegrationTest {
     @Autowired
     private InsuranceService service;
     @Autowired
+    private StatsService statsService;
+    @Autowired
+    private ConversionStatsEngine statsEngine;
+    @Autowired
+    private OfferCache offerCache;
+    @Autowired
+    private DailyRollupService rollupService;
+    @Autowired
+    private QuoteService quoteService;
+    @Autowired
+    private IdempotencyRepository idempotencyRepository;
+    @Autowired
+    private QueryPlanCheck queryPlanCheck;
+    @Autowired
+    private OfferArchiver archiver;
+    @Autowired
+    private ArchivedOfferRepository archiveRepository;
+    @Autowired
+    private DailyOfferStatsRepository dailyOfferStatsRepository;
+    @Autowired
+    private OfferExpiryWheel expiryWheel;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
     private Validator validator;
 
     @BeforeEach
     void setup() {
         repository.deleteAll();
+        archiveRepository.deleteAll();
 
         Offer oldPending = new Offer();
         oldPending.setStatus(OfferStatus.PENDING);
@@ -70,6 +137,273 @@ public class IntegrationTest {
         assertNotNull(notExpired.getPersonalNumber());
     }
 
+    @Test
+    void checkOfferStatus_shouldExpireInBatchesAndReportCount() {
+        for (int i = 0; i < 4; i++) {
+            Offer old = new Offer();
+            old.setStatus(OfferStatus.PENDING);
+            old.setCreatedDate(LocalDateTime.now().minusDays(31 + i));
+            old.setPersonalNumber("123456789" + i);
+            repository.save(old);
+        }
+
+        assertEquals(5, service.checkForExpiredOffers());
+        assertEquals(0, service.checkForExpiredOffers());
+
+        long expired = repository.findAll().stream().filter(o -> o.getStatus() == OfferStatus.EXPIRED).count();
+        assertEquals(5, expired);
+    }
+
+    @Test
+    void expiryWheel_shouldExpireEachPendingOfferAtItsDeadline() throws Exception {
+        Offer overdue = repository.findAll().get(0);
+        Offer accepted = terminalOffer(OfferStatus.ACCEPTED, "199010101234", 40);
+        Offer dueSoon = new Offer();
+        dueSoon.setStatus(OfferStatus.PENDING);
+        dueSoon.setCreatedDate(LocalDateTime.now().minusDays(Offer.EXPIRATION_DAYS).plusSeconds(1));
+        dueSoon.setPersonalNumber("199010101234");
+        repository.save(dueSoon);
+        for (Offer offer : List.of(overdue, accepted, dueSoon)) {
+            expiryWheel.schedule(offer.getId(), offer.getCreatedDate());
+        }
+
+        assertEquals(1, expiryWheel.tick());
+        assertEquals(OfferStatus.EXPIRED, repository.findById(overdue.getId()).orElseThrow().getStatus());
+        assertEquals("", repository.findById(overdue.getId()).orElseThrow().getPersonalNumber());
+        assertEquals(OfferStatus.ACCEPTED, repository.findById(accepted.getId()).orElseThrow().getStatus());
+        assertEquals(OfferStatus.PENDING, repository.findById(dueSoon.getId()).orElseThrow().getStatus());
+        assertEquals(1, expiryWheel.size());
+
+        int expired = 0;
+        for (int attempt = 0; attempt < 30 && expired == 0; attempt++) {
+            Thread.sleep(100);
+            expired = expiryWheel.tick();
+        }
+        assertEquals(1, expired);
+        assertEquals(OfferStatus.EXPIRED, repository.findById(dueSoon.getId()).orElseThrow().getStatus());
+        assertEquals(0, expiryWheel.size());
+    }
+
+    @Test
+    void conversionStats_shouldMatchFullScanAfterCreateAndAccept() {
+        statsEngine.rebuild();
+
+        OfferCreateDto dto = new OfferCreateDto("199010101234", List.of(1000.0), 50.0);
+        Offer first = service.createOffer(dto);
+        service.createOffer(dto);
+        service.acceptOffer(first.getId());
+
+        assertEquals(4, statsService.getConversionStats(30).totalOffers());
+        assertEquals(1, statsService.getConversionStats(1).acceptedWithinXDays());
+
+        StatsConsistencyDto check = statsService.checkConsistency(30);
+        assertTrue(check.consistent());
+        assertEquals(check.scan(), check.engine());
+    }
+
+    @Test
+    void createOffers_shouldPersistBatchWithLoans() {
+        List<OfferCreateDto> dtos = java.util.stream.IntStream.range(0, 120)
+                .mapToObj(i -> new OfferCreateDto("19901010" + String.format("%04d", i), List.of(1000.0, 2000.0), 50.0))
+                .toList();
+
+        List<Offer> created = service.createOffers(dtos);
+
+        assertEquals(120, created.size());
+        assertEquals(120, created.stream().map(Offer::getId).distinct().count());
+        Offer reloaded = repository.findById(created.get(119).getId()).orElseThrow();
+        assertEquals(3000.0 * 0.038, reloaded.getPremium());
+        assertArrayEquals(new double[]{1000.0, 2000.0}, reloaded.getLoanAmounts());
+    }
+
+    @Test
+    void acceptOffer_shouldReturnTheOfferAsTheUpdateLeftIt() {
+        Offer created = service.createOffer(new OfferCreateDto("199010101234", List.of(1000.0, 2000.0), 50.0));
+
+        Offer accepted = service.acceptOffer(created.getId());
+
+        assertEquals(OfferStatus.ACCEPTED, accepted.getStatus());
+        assertNotNull(accepted.getAcceptedDate());
+        assertEquals(created.getVersion() + 1, accepted.getVersion());
+        assertEquals(created.getPremium(), accepted.getPremium());
+        assertArrayEquals(new double[]{1000.0, 2000.0}, accepted.getLoanAmounts());
+        assertEquals(OfferDto.from(accepted), OfferDto.from(repository.findById(created.getId()).orElseThrow()));
+    }
+
+    @Test
+    void getOffer_shouldServeFromCacheAndFollowWrites() {
+        long id = repository.findAll().get(0).getId();
+        CacheStatsDto before = offerCache.stats();
+
+        assertEquals(OfferStatus.PENDING, service.getOffer(id).status());
+        assertEquals(OfferStatus.PENDING, service.getOffer(id).status());
+
+        CacheStatsDto after = offerCache.stats();
+        assertEquals(before.misses() + 1, after.misses());
+        assertEquals(before.hits() + 1, after.hits());
+
+        service.checkForExpiredOffers();
+        assertEquals(OfferStatus.EXPIRED, service.getOffer(id).status());
+
+        Offer created = service.createOffer(new OfferCreateDto("199010101234", List.of(1000.0), 50.0));
+        service.acceptOffer(created.getId());
+        long misses = offerCache.stats().misses();
+        assertEquals(OfferStatus.ACCEPTED, service.getOffer(created.getId()).status());
+        assertEquals(misses, offerCache.stats().misses());
+    }
+
+    @Test
+    void offerCache_shouldKeepNewerSnapshotWhenEventsArriveOutOfOrder() {
+        Offer offer = repository.findAll().get(0);
+        OfferDto current = service.getOffer(offer.getId());
+        OfferDto newer = new OfferDto(current.id(), current.personalNumber(), current.loans(), current.monthlyAmount(),
+                current.premium(), OfferStatus.ACCEPTED, current.createdDate(), current.updatedTime(), LocalDateTime.now(),
+                current.version() + 1);
+
+        offerCache.onOfferEvent(new OfferEvent(OfferEventType.ACCEPTED, offer.getId(), offer.getCreatedDate(), LocalDateTime.now(), newer));
+        offerCache.onOfferEvent(new OfferEvent(OfferEventType.UPDATED, offer.getId(), offer.getCreatedDate(), LocalDateTime.now(), current));
+
+        assertEquals(OfferStatus.ACCEPTED, service.getOffer(offer.getId()).status());
+        offerCache.invalidate(offer.getId());
+    }
+
+    @Test
+    void searchOffers_shouldPageWithCursorAndFilter() {
+        service.createOffers(java.util.stream.IntStream.range(0, 5)
+                .mapToObj(i -> new OfferCreateDto("199901011111", List.of(1000.0 * (i + 1)), 50.0))
+                .toList());
+        OfferSearchCriteria byCustomer = new OfferSearchCriteria("199901011111", OfferStatus.PENDING, null, null);
+
+        OfferPageDto first = service.searchOffers(byCustomer, 0, 2, false);
+        assertEquals(2, first.items().size());
+        assertNull(first.items().get(0).loans());
+        assertNotNull(first.nextCursor());
+
+        OfferPageDto second = service.searchOffers(byCustomer, first.nextCursor(), 2, true);
+        assertEquals(2, second.items().size());
+        assertTrue(second.items().get(0).id() > first.nextCursor());
+        assertEquals(List.of(3000.0), second.items().get(0).loans());
+
+        OfferPageDto last = service.searchOffers(byCustomer, second.nextCursor(), 2, false);
+        assertEquals(1, last.items().size());
+        assertNull(last.nextCursor());
+
+        OfferSearchCriteria oldOffers = new OfferSearchCriteria(null, null, null, LocalDateTime.now().minusDays(30));
+        assertEquals(1, service.searchOffers(oldOffers, 0, 50, false).items().size());
+    }
+
+    @Test
+    void searchOffers_shouldListAnOfferCaughtMidArchiveOnce() {
+        Offer accepted = terminalOffer(OfferStatus.ACCEPTED, "199801011111", 100);
+        Offer later = terminalOffer(OfferStatus.ACCEPTED, "199801011111", 90);
+        // Copied to the archive but not yet deleted from offers, as between the archiver's two statements.
+        jdbcTemplate.update("""
+                insert into offers_archive (id, personal_number, loans, monthly_amount, premium, status, created_date,
+                                            updated_time, accepted_date, archived_date)
+                select id, personal_number, loans, monthly_amount, premium, status, created_date, updated_time,
+                       accepted_date, localtimestamp
+                from offers where id = ?
+                """, accepted.getId());
+
+        OfferSearchCriteria byCustomer = new OfferSearchCriteria("199801011111", null, null, null);
+        assertEquals(List.of(accepted.getId(), later.getId()),
+                service.searchOffers(byCustomer, 0, 10, false).items().stream().map(OfferSummaryDto::id).toList());
+    }
+
+    @Test
+    void updateOffer_shouldLetOnlyOneOfTwoRacingIfMatchUpdatesThrough() throws Exception {
+        long id = repository.findAll().get(0).getId();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                long version = repository.findById(id).orElseThrow().getVersion();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Offer>> updates = new ArrayList<>();
+                for (int t = 1; t <= 2; t++) {
+                    OfferCreateDto dto = new OfferCreateDto("199010101234", List.of(1000.0 * t), 50.0);
+                    updates.add(pool.submit(() -> {
+                        start.await();
+                        return service.updateOffer(id, dto, version);
+                    }));
+                }
+                start.countDown();
+
+                List<Offer> applied = new ArrayList<>();
+                for (Future<Offer> update : updates) {
+                    try {
+                        applied.add(update.get());
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(PreconditionFailedException.class, e.getCause());
+                    }
+                }
+                assertEquals(1, applied.size());
+                Offer stored = repository.findById(id).orElseThrow();
+                assertEquals(version + 1, stored.getVersion());
+                assertEquals(OfferDto.from(applied.get(0)), OfferDto.from(stored));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void acceptOffer_shouldAcceptExactlyOnceUnderContention() throws Exception {
+        int offers = 50;
+        int threadsPerOffer = 8;
+        List<Offer> created = service.createOffers(java.util.stream.IntStream.range(0, offers)
+                .mapToObj(i -> new OfferCreateDto("199010101234", List.of(1000.0), 50.0))
+                .toList());
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threadsPerOffer);
+        List<Future<?>> futures = new ArrayList<>();
+        for (Offer offer : created) {
+            for (int t = 0; t < threadsPerOffer; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        service.acceptOffer(offer.getId());
+                        accepted.incrementAndGet();
+                    } catch (ConflictException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(offers, accepted.get());
+        assertEquals(offers * (threadsPerOffer - 1), conflicts.get());
+        for (Offer offer : created) {
+            Offer reloaded = repository.findById(offer.getId()).orElseThrow();
+            assertEquals(OfferStatus.ACCEPTED, reloaded.getStatus());
+            assertEquals(offer.getVersion() + 1, reloaded.getVersion());
+        }
+    }
+
+    @Test
+    void idempotencyStore_shouldReplayPersistedResponseAfterRestart() {
+        IdempotencyProperties properties = new IdempotencyProperties(Duration.ofHours(1), 4, 100, true);
+        IdempotencyStore beforeRestart = new IdempotencyStore(properties, idempotencyRepository);
+        assertInstanceOf(IdempotencyStore.Started.class, beforeRestart.begin("restart-key", "POST /api/v1/offers"));
+        beforeRestart.complete("restart-key", new IdempotencyStore.StoredResponse("POST /api/v1/offers", 201, "/api/v1/offers/7", null, new byte[0]));
+
+        IdempotencyStore afterRestart = new IdempotencyStore(properties, idempotencyRepository);
+        IdempotencyStore.Outcome outcome = afterRestart.begin("restart-key", "POST /api/v1/offers");
+
+        IdempotencyStore.Replay replay = assertInstanceOf(IdempotencyStore.Replay.class, outcome);
+        assertEquals(201, replay.response().status());
+        assertEquals("/api/v1/offers/7", replay.response().location());
+        assertInstanceOf(IdempotencyStore.Mismatch.class, afterRestart.begin("restart-key", "POST /api/v1/offers/7/accept"));
+    }
+
     @Test
     void shouldFailValidationWhenPersonalNumberIsNull() {
         OfferCreateDto dto = new OfferCreateDto(null, List.of(1000.0), 1500.0);
@@ -122,4 +456,194 @@ public class IntegrationTest {
         Offer offer = service.createOffer(dto);
         assertEquals(1000 * 1000.0 * 0.038, offer.getPremium());
     }
+
+    @Test
+    void shouldQuoteWithoutPersistingAndReuseQuotesForReorderedLoans() {
+        long offers = repository.count();
+        long hits = quoteService.stats().hits();
+
+        QuoteDto first = quoteService.quote(new OfferCreateDto("199010101234", List.of(250_000.0, 100_000.0), 500.0));
+        QuoteDto second = quoteService.quote(new OfferCreateDto("199011111234", List.of(100_000.0, 250_000.0), 900.0));
+
+        assertEquals(350_000.0 * 0.038, first.premium(), 1e-9);
+        assertEquals(first, second);
+        assertEquals(hits + 1, quoteService.stats().hits());
+        assertEquals(offers, repository.count());
+    }
+
+    @Test
+    void dailyStats_shouldCombineRollupsWithTodayOverAnyRange() {
+        Offer acceptedEarlier = new Offer();
+        acceptedEarlier.setStatus(OfferStatus.ACCEPTED);
+        acceptedEarlier.setPersonalNumber("199010101234");
+        acceptedEarlier.setPremium(100.0);
+        acceptedEarlier.setCreatedDate(LocalDateTime.now().minusDays(3));
+        acceptedEarlier.setAcceptedDate(LocalDateTime.now().minusDays(2));
+        repository.save(acceptedEarlier);
+
+        assertTrue(rollupService.rebuild() >= 40);
+        assertEquals(0, rollupService.rollUp());
+        service.createOffer(new OfferCreateDto("199010101234", List.of(1000.0), 50.0));
+
+        LocalDate today = LocalDate.now();
+        DailyStatsDto all = statsService.getDailyStats(today.minusYears(3), today);
+        assertEquals(4, all.created());
+        assertEquals(1, all.accepted());
+        assertEquals(1, all.expired());
+        assertEquals(100.0 + 1000.0 * 0.038, all.premiumCreated(), 1e-9);
+        assertEquals(100.0, all.premiumAccepted(), 1e-9);
+        assertEquals(25.0, all.conversionRate(), 1e-9);
+
+        DailyStatsDto expiryDay = statsService.getDailyStats(today.minusDays(10), today.minusDays(10));
+        assertEquals(0, expiryDay.created());
+        assertEquals(1, expiryDay.expired());
+
+        assertEquals(1, statsService.getDailyStats(today, today).created());
+        assertEquals(1, statsService.getConversionStats(1000).acceptedWithinXDays());
+    }
+
+    @Test
+    void dailyStats_shouldReadDaysNotYetRolledUpFromTheOffersTable() {
+        Offer acceptedEarlier = new Offer();
+        acceptedEarlier.setStatus(OfferStatus.ACCEPTED);
+        acceptedEarlier.setPersonalNumber("199010101234");
+        acceptedEarlier.setPremium(100.0);
+        acceptedEarlier.setCreatedDate(LocalDateTime.now().minusDays(3));
+        acceptedEarlier.setAcceptedDate(LocalDateTime.now().minusDays(2));
+        repository.save(acceptedEarlier);
+
+        // A roll-up whose writes were lost: the stored days end before the accept.
+        LocalDate today = LocalDate.now();
+        DailyOfferStatsRepository stored = Mockito.mock(DailyOfferStatsRepository.class);
+        Mockito.when(stored.findTopByOrderByDayDesc()).thenReturn(Optional.empty());
+        Mockito.when(stored.findAllByOrderByDayAsc()).thenReturn(List.of(new DailyOfferStats(today.minusDays(5), 0, 0, 0, 0, 0)));
+        DailyRollupService lagging = new DailyRollupService(repository, archiveRepository, stored);
+        lagging.rollUp();
+
+        DailyStatsDto all = lagging.range(today.minusYears(1), today);
+        assertEquals(1, all.accepted());
+        assertEquals(100.0, all.premiumAccepted(), 1e-9);
+        assertEquals(1, lagging.range(today.minusDays(2), today.minusDays(2)).accepted());
+    }
+
+    @Test
+    void statsVersion_shouldChangeWhenTheRollupsAreReloaded() {
+        String before = statsService.version();
+        assertEquals(before, statsService.version());
+
+        rollupService.rollUp();
+
+        assertNotEquals(before, statsService.version());
+    }
+
+    @Test
+    void dailyOfferStats_shouldReplaceADayStoredByAnotherNode() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        dailyOfferStatsRepository.saveDays(List.of(new DailyOfferStats(day, 1, 0, 0, 10.0, 0)));
+        dailyOfferStatsRepository.saveDays(List.of(new DailyOfferStats(day, 2, 1, 0, 20.0, 10.0)));
+
+        assertEquals(2, dailyOfferStatsRepository.findById(day).orElseThrow().getCreated());
+        dailyOfferStatsRepository.deleteAllDays();
+    }
+
+    @Test
+    void queryPlanCheck_shouldFindAnIndexForEveryHotQuery() {
+        assertEquals(List.of(), queryPlanCheck.check());
+
+        jdbcTemplate.execute("drop index idx_offers_personal_number_id");
+        try {
+            assertEquals(List.of("offers per customer"), queryPlanCheck.check());
+        } finally {
+            jdbcTemplate.execute("create index idx_offers_personal_number_id on offers (personal_number, id)");
+        }
+    }
+
+    @Test
+    void archive_shouldMoveOldTerminalOffersAndKeepReadsAndStatsCorrect() {
+        Offer oldAccepted = terminalOffer(OfferStatus.ACCEPTED, "199010101234", 100);
+        Offer oldExpired = terminalOffer(OfferStatus.EXPIRED, "", 120);
+        Offer olderAccepted = terminalOffer(OfferStatus.ACCEPTED, "199010101234", 130);
+        Offer recentAccepted = terminalOffer(OfferStatus.ACCEPTED, "199010101234", 10);
+        // Created before the cutoff but accepted after it, so still live.
+        Offer lateAccepted = terminalOffer(OfferStatus.ACCEPTED, "199801011111", 100);
+        lateAccepted.setAcceptedDate(lateAccepted.getCreatedDate().plusDays(25));
+        repository.save(lateAccepted);
+
+        LocalDate today = LocalDate.now();
+        rollupService.rebuild();
+        statsEngine.rebuild();
+        DailyStatsDto statsBefore = statsService.getDailyStats(today.minusYears(1), today);
+        ConversionStatsDto conversionBefore = statsService.getConversionStats(365);
+
+        assertEquals(3, archiver.archive());
+        assertEquals(0, archiver.archive());
+        assertEquals(4, repository.count());
+        assertEquals(3, archiveRepository.count());
+        assertTrue(repository.existsById(lateAccepted.getId()));
+
+        OfferDto archived = service.getOffer(oldAccepted.getId());
+        assertEquals(OfferStatus.ACCEPTED, archived.status());
+        assertEquals(List.of(1000.0, 2000.0), archived.loans());
+        assertEquals(oldAccepted.getAcceptedDate(), archived.acceptedDate());
+
+        OfferPageDto page = service.searchOffers(new OfferSearchCriteria("199010101234", null, null, null), 0, 2, true);
+        assertEquals(List.of(oldAccepted.getId(), olderAccepted.getId()), page.items().stream().map(item -> item.id()).toList());
+        assertEquals(List.of(1000.0, 2000.0), page.items().get(0).loans());
+        OfferPageDto rest = service.searchOffers(new OfferSearchCriteria("199010101234", null, null, null), page.nextCursor(), 2, false);
+        assertEquals(List.of(recentAccepted.getId()), rest.items().stream().map(item -> item.id()).toList());
+
+        ConflictException accepted = assertThrows(ConflictException.class, () -> service.acceptOffer(oldAccepted.getId()));
+        assertEquals("Offer has already been accepted", accepted.getMessage());
+        assertThrows(ConflictException.class, () -> service.acceptOffer(oldExpired.getId()));
+        assertThrows(ConflictException.class, () -> service.updateOffer(oldExpired.getId(),
+                new OfferCreateDto("199010101234", List.of(1000.0), 50.0)));
+
+        rollupService.rebuild();
+        statsEngine.rebuild();
+        assertEquals(statsBefore, statsService.getDailyStats(today.minusYears(1), today));
+        assertEquals(conversionBefore, statsService.getConversionStats(365));
+        assertTrue(statsService.checkConsistency(365).consistent());
+    }
+
+    @Test
+    void acceptOffers_shouldAcceptEligibleOffersAndReportEachOutcome() {
+        List<Offer> pending = repository.findAll();
+        Offer expired = pending.get(0);
+        Offer eligible = pending.get(1);
+        Offer accepted = terminalOffer(OfferStatus.ACCEPTED, "199010101234", 2);
+        Offer archived = terminalOffer(OfferStatus.EXPIRED, "", 120);
+        assertEquals(1, archiver.archive());
+
+        OfferAcceptResultDto result = service.acceptOffers(List.of(eligible.getId(), expired.getId(), accepted.getId(),
+                archived.getId(), 999_999L, eligible.getId()));
+
+        assertEquals(1, result.accepted());
+        assertEquals(5, result.rejected());
+        assertEquals(List.of(AcceptOutcome.ACCEPTED, AcceptOutcome.EXPIRED, AcceptOutcome.CONFLICT, AcceptOutcome.EXPIRED,
+                AcceptOutcome.NOT_FOUND, AcceptOutcome.CONFLICT), result.items().stream().map(item -> item.outcome()).toList());
+        assertEquals("Offer has already been accepted", result.items().get(2).error());
+        assertEquals("Offer has already been accepted", result.items().get(5).error());
+
+        Offer stored = repository.findById(eligible.getId()).orElseThrow();
+        assertEquals(OfferStatus.ACCEPTED, stored.getStatus());
+        assertNotNull(stored.getAcceptedDate());
+        assertEquals(OfferStatus.ACCEPTED, service.getOffer(eligible.getId()).status());
+        assertEquals(stored.getVersion(), service.getOffer(eligible.getId()).version());
+        assertEquals(OfferStatus.PENDING, repository.findById(expired.getId()).orElseThrow().getStatus());
+
+        assertEquals(AcceptOutcome.CONFLICT, service.acceptOffers(List.of(eligible.getId())).items().get(0).outcome());
+    }
+
+    private Offer terminalOffer(OfferStatus status, String personalNumber, int ageDays) {
+        Offer offer = new Offer();
+        offer.setStatus(status);
+        offer.setPersonalNumber(personalNumber);
+        offer.setLoans(List.of(1000.0, 2000.0));
+        offer.setPremium(114.0);
+        offer.setCreatedDate(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS).minusDays(ageDays));
+        if (status == OfferStatus.ACCEPTED) {
+            offer.setAcceptedDate(offer.getCreatedDate().plusDays(1));
+        }
+        return repository.save(offer);
+    }
 }
@@ -0,0 +1,132 @@
+package org.example.insuranceapi;
+
+import org.example.insuranceapi.model.LoanAmountsConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old element-collection layout (offers + offer_loans) with the packed loans column,
+ * issuing the same statements Hibernate generates for create, update and read.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "insurance.expiry.cron=-")
+class LoanStorageBenchmarkTest {
+
+    private static final int OFFERS = 20_000;
+    private static final double[] LOANS = {100_000.0, 250_000.0, 50_000.0, 75_000.0};
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @BeforeEach
+    void createTables() {
+        jdbc.execute("create table bench_legacy_offers (id bigint primary key, premium float(53))");
+        jdbc.execute("create table bench_legacy_loans (offer_id bigint not null, loan_amount float(53))");
+        jdbc.execute("create index bench_legacy_loans_offer on bench_legacy_loans (offer_id)");
+        jdbc.execute("create table bench_packed_offers (id bigint primary key, premium float(53), loans varbinary(32768))");
+    }
+
+    @AfterEach
+    void dropTables() {
+        jdbc.execute("drop table bench_legacy_offers");
+        jdbc.execute("drop table bench_legacy_loans");
+        jdbc.execute("drop table bench_packed_offers");
+    }
+
+    @Test
+    void compareLegacyAndPackedLayouts() {
+        report("create", time(this::createLegacy), time(this::createPacked));
+        report("update", time(this::updateLegacy), time(this::updatePacked));
+        report("read", time(this::readLegacy), time(this::readPacked));
+    }
+
+    private void createLegacy(List<Long> ids) {
+        jdbc.batchUpdate("insert into bench_legacy_offers (id, premium) values (?, ?)", ids, 50,
+                (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setDouble(2, 1.0);
+                });
+        List<Object[]> loans = new ArrayList<>(ids.size() * LOANS.length);
+        for (Long id : ids) {
+            for (double loan : LOANS) {
+                loans.add(new Object[]{id, loan});
+            }
+        }
+        jdbc.batchUpdate("insert into bench_legacy_loans (offer_id, loan_amount) values (?, ?)", loans);
+    }
+
+    private void createPacked(List<Long> ids) {
+        jdbc.batchUpdate("insert into bench_packed_offers (id, premium, loans) values (?, ?, ?)", ids, 50,
+                (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setDouble(2, 1.0);
+                    ps.setBytes(3, LoanAmountsConverter.pack(LOANS));
+                });
+    }
+
+    // Hibernate rewrites an element collection on every change: delete all rows, insert them again.
+    private void updateLegacy(List<Long> ids) {
+        for (Long id : ids) {
+            jdbc.update("update bench_legacy_offers set premium = ? where id = ?", 2.0, id);
+            jdbc.update("delete from bench_legacy_loans where offer_id = ?", id);
+            for (double loan : LOANS) {
+                jdbc.update("insert into bench_legacy_loans (offer_id, loan_amount) values (?, ?)", id, loan + 1);
+            }
+        }
+    }
+
+    private void updatePacked(List<Long> ids) {
+        double[] updated = LOANS.clone();
+        updated[0] += 1;
+        byte[] packed = LoanAmountsConverter.pack(updated);
+        for (Long id : ids) {
+            jdbc.update("update bench_packed_offers set premium = ?, loans = ? where id = ?", 2.0, packed, id);
+        }
+    }
+
+    private void readLegacy(List<Long> ids) {
+        for (Long id : ids) {
+            jdbc.queryForObject("select premium from bench_legacy_offers where id = ?", Double.class, id);
+            List<Double> loans = jdbc.queryForList("select loan_amount from bench_legacy_loans where offer_id = ?", Double.class, id);
+            assertEquals(LOANS.length, loans.size());
+        }
+    }
+
+    private void readPacked(List<Long> ids) {
+        for (Long id : ids) {
+            double[] loans = jdbc.queryForObject("select loans from bench_packed_offers where id = ?",
+                    (rs, row) -> LoanAmountsConverter.unpack(rs.getBytes(1)), id);
+            assertEquals(LOANS.length, loans.length);
+        }
+    }
+
+    private long time(Consumer<List<Long>> operation) {
+        List<Long> ids = new ArrayList<>(OFFERS);
+        for (long id = 1; id <= OFFERS; id++) {
+            ids.add(id);
+        }
+        long start = System.nanoTime();
+        transactions.executeWithoutResult(status -> operation.accept(ids));
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String operation, long legacyNanos, long packedNanos) {
+        System.out.printf("%-6s legacy: %,8.0f offers/s   packed: %,8.0f offers/s%n",
+                operation, OFFERS / (legacyNanos / 1e9), OFFERS / (packedNanos / 1e9));
+    }
+}
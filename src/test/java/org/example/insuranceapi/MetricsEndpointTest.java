@@ -0,0 +1,44 @@
+package org.example.insuranceapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void shouldExposeHotPathMetricsInPrometheusFormat() throws Exception {
+        mvc.perform(post("/api/v1/offers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"personalNumber\": \"199010101234\", \"loans\": [5000], \"monthlyPayment\": 950}"))
+                .andExpect(status().isCreated());
+        mvc.perform(get("/api/v1/stats/conversion")).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("insurance_service_seconds{class=\"org.example.insuranceapi.service.InsuranceService\",exception=\"none\",method=\"createOffer\",quantile=\"0.99\"")))
+                .andExpect(content().string(containsString("insurance_db_queries_count{method=\"POST\",uri=\"/api/v1/offers\"")))
+                .andExpect(content().string(containsString("insurance_expiry_sweep_seconds")))
+                .andExpect(content().string(containsString("insurance_expiry_rows_expired_total")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+}
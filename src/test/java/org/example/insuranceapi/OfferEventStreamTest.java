@@ -0,0 +1,190 @@
+package org.example.insuranceapi;
+
+import org.example.insuranceapi.config.OfferEventStreamProperties;
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.event.OfferEventType;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.service.InsuranceService;
+import org.example.insuranceapi.service.OfferEventStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class OfferEventStreamTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private InsuranceService service;
+    @Autowired
+    private InsuranceRepository repository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Stream<String>> connections = new ArrayList<>();
+    private final OfferCreateDto dto = new OfferCreateDto("199010101234", List.of(100_000.0), 950.0);
+
+    @AfterEach
+    void disconnect() {
+        connections.forEach(Stream::close);
+    }
+
+    @Test
+    void shouldStreamCreateAcceptAndExpireEvents() throws Exception {
+        BlockingQueue<String> lines = subscribe(null);
+
+        long created = service.createOffer(dto).getId();
+        service.acceptOffer(created);
+
+        Offer stale = new Offer(0, "199010101234", List.of(1000.0), 50.0);
+        stale.setStatus(OfferStatus.PENDING);
+        stale.setCreatedDate(LocalDateTime.now().minusDays(40));
+        long expired = repository.save(stale).getId();
+        service.checkForExpiredOffers();
+
+        assertEquals("created", nextEventFor(lines, created).get("event"));
+        assertEquals("accepted", nextEventFor(lines, created).get("event"));
+        Map<String, String> expiry = nextEventFor(lines, expired);
+        assertEquals("expired", expiry.get("event"));
+        assertTrue(expiry.get("data").contains("\"offer\":null"));
+    }
+
+    @Test
+    void shouldReplayEventsAfterLastEventId() throws Exception {
+        BlockingQueue<String> lines = subscribe(null);
+        long first = service.createOffer(dto).getId();
+        String firstEventId = nextEventFor(lines, first).get("id");
+
+        long second = service.createOffer(dto).getId();
+        long third = service.createOffer(dto).getId();
+
+        BlockingQueue<String> resumed = subscribe(firstEventId);
+        assertEquals(second, offerId(nextEvent(resumed)));
+        assertEquals(third, offerId(nextEvent(resumed)));
+
+        BlockingQueue<String> unknown = subscribe("earlier-run-7");
+        assertEquals("gap", nextEvent(unknown).get("event"));
+    }
+
+    @Test
+    void shouldDisconnectSubscriberThatFallsBehindWithoutBlockingPublishers() {
+        List<Runnable> neverRun = new ArrayList<>();
+        OfferEventStream stream = new OfferEventStream(
+                new OfferEventStreamProperties(100, 2, Duration.ofMinutes(1), Duration.ofSeconds(15)), neverRun::add);
+        stream.subscribe(null);
+        assertEquals(1, stream.subscriberCount());
+
+        for (long id = 1; id <= 5; id++) {
+            stream.onOfferEvent(new OfferEvent(OfferEventType.CREATED, id, LocalDateTime.now(), LocalDateTime.now(), null));
+        }
+
+        assertEquals(0, stream.subscriberCount());
+    }
+
+    @Test
+    void shouldCloseOpenStreamsBeforeGracefulShutdownWaitsForThem() throws Exception {
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(InsuranceApiApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--server.shutdown=graceful",
+                        "--spring.lifecycle.timeout-per-shutdown-phase=20s",
+                        "--spring.datasource.url=jdbc:h2:mem:event-stream-shutdown",
+                        "--insurance.schema.plan-check=false",
+                        "--logging.level.root=WARN");
+        int nodePort = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        BlockingQueue<String> lines = subscribe(nodePort, null);
+        assertEquals(":offer events", lines.poll(5, TimeUnit.SECONDS));
+
+        long started = System.nanoTime();
+        node.close();
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(10)) < 0,
+                "Graceful shutdown waited for the open stream");
+    }
+
+    private BlockingQueue<String> subscribe(String lastEventId) throws Exception {
+        return subscribe(port, lastEventId);
+    }
+
+    private BlockingQueue<String> subscribe(int port, String lastEventId) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/offers/events"))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        HttpResponse<Stream<String>> response = client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofLines())
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(200, response.statusCode());
+        connections.add(response.body());
+        CompletableFuture.runAsync(() -> response.body().forEach(lines::add));
+        return lines;
+    }
+
+    private static Map<String, String> nextEventFor(BlockingQueue<String> lines, long offerId) throws InterruptedException {
+        Map<String, String> event;
+        do {
+            event = nextEvent(lines);
+        } while (offerId(event) != offerId);
+        return event;
+    }
+
+    private static Map<String, String> nextEvent(BlockingQueue<String> lines) throws InterruptedException {
+        Map<String, String> event = new HashMap<>();
+        while (true) {
+            String line = lines.poll(5, TimeUnit.SECONDS);
+            assertNotNull(line, "Timed out waiting for an event");
+            if (line.isEmpty()) {
+                if (event.containsKey("data")) {
+                    return event;
+                }
+                event.clear();
+            } else if (!line.startsWith(":")) {
+                int colon = line.indexOf(':');
+                event.merge(line.substring(0, colon), line.substring(colon + 1), (a, b) -> a + "\n" + b);
+            }
+        }
+    }
+
+    private static long offerId(Map<String, String> event) {
+        String data = event.getOrDefault("data", "");
+        int start = data.indexOf("\"offerId\":");
+        if (start < 0) {
+            return -1;
+        }
+        int end = start + "\"offerId\":".length();
+        while (end < data.length() && Character.isDigit(data.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(data.substring(start + "\"offerId\":".length(), end));
+    }
+}
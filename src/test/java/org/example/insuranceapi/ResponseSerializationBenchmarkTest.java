@@ -0,0 +1,61 @@
+package org.example.insuranceapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.insuranceapi.dto.OfferDto;
+import org.example.insuranceapi.dto.OfferFields;
+import org.example.insuranceapi.dto.OfferStatusDto;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Response size and serialisation time of an accepted offer, written as the entity the accept and update
+ * endpoints used to return, as {@link OfferDto}, as {@link OfferStatusDto} and as a {@code ?fields=} map.
+ */
+@Tag("benchmark")
+class ResponseSerializationBenchmarkTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void compareResponseShapes() throws Exception {
+        Offer offer = new Offer(123_456, "199010101234", List.of(100_000.0, 250_000.0, 50_000.0, 75_000.0), 500.0);
+        offer.setPremium(18_050.0);
+        offer.setStatus(OfferStatus.ACCEPTED);
+        offer.setCreatedDate(LocalDateTime.now().minusDays(3));
+        offer.setAcceptedDate(LocalDateTime.now());
+        Set<String> fields = OfferFields.parse("id,status");
+
+        int entity = report("entity", () -> mapper.writeValueAsBytes(offer));
+        report("OfferDto", () -> mapper.writeValueAsBytes(OfferDto.from(offer)));
+        int lean = report("OfferStatusDto", () -> mapper.writeValueAsBytes(OfferStatusDto.from(offer)));
+        report("fields=id,status", () -> mapper.writeValueAsBytes(OfferFields.select(OfferDto.from(offer), fields)));
+
+        assertTrue(lean < entity);
+    }
+
+    private static int report(String shape, Callable<byte[]> serialise) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            serialise.call();
+        }
+        int bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = serialise.call().length;
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-17s %4d bytes   %,6.0f ns/response%n", shape, bytes, (double) nanos / ITERATIONS);
+        return bytes;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.insuranceapi;
+
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.service.ExpirySweepCoordinator;
+import org.example.insuranceapi.service.OfferExpiryWheel;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application contexts sharing one H2 server, standing in for two nodes of a cluster.
+ */
+class SweepLeaseTest {
+
+    private static final int SHARDS = 4;
+
+    private Server server;
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void startCluster() throws Exception {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:sweep-leases;DB_CLOSE_DELAY=-1";
+        nodeA = startNode(url, "node-a");
+        nodeB = startNode(url, "node-b");
+    }
+
+    @AfterEach
+    void stopCluster() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        server.stop();
+    }
+
+    @Test
+    void nodesShouldSplitShardsAndEachExpireOnlyTheirOwnOffers() {
+        ExpirySweepCoordinator a = nodeA.getBean(ExpirySweepCoordinator.class);
+        ExpirySweepCoordinator b = nodeB.getBean(ExpirySweepCoordinator.class);
+
+        // A starts alone and takes every shard, then hands half back once B has announced itself.
+        assertEquals(Set.of(0, 1, 2, 3), a.claimShards());
+        assertEquals(Set.of(), b.claimShards());
+        assertEquals(2, a.claimShards().size());
+        assertEquals(2, b.claimShards().size());
+        assertDisjointAndComplete(a.ownedShards(), b.ownedShards());
+
+        InsuranceRepository repository = nodeA.getBean(InsuranceRepository.class);
+        for (int i = 0; i < 20; i++) {
+            Offer offer = new Offer();
+            offer.setStatus(OfferStatus.PENDING);
+            offer.setPersonalNumber("19901010123" + (i % 10));
+            offer.setCreatedDate(LocalDateTime.now().minusDays(31));
+            repository.save(offer);
+        }
+
+        int expiredByA = a.sweep();
+        int expiredByB = b.sweep();
+        assertEquals(20, expiredByA + expiredByB);
+        assertTrue(expiredByA > 0 && expiredByB > 0);
+        assertEquals(0, a.sweep() + b.sweep());
+        assertTrue(repository.findAll().stream().allMatch(offer -> offer.getStatus() == OfferStatus.EXPIRED));
+    }
+
+    @Test
+    void survivingNodeShouldTakeOverShardsOfADeadNode() throws Exception {
+        ExpirySweepCoordinator a = nodeA.getBean(ExpirySweepCoordinator.class);
+        ExpirySweepCoordinator b = nodeB.getBean(ExpirySweepCoordinator.class);
+        a.claimShards();
+        b.claimShards();
+        a.claimShards();
+        b.claimShards();
+        assertEquals(2, b.ownedShards().size());
+
+        // B stops renewing without releasing anything, as if the process had been killed.
+        Thread.sleep(3_500);
+        assertEquals(Set.of(0, 1, 2, 3), a.claimShards());
+
+        // A clean shutdown hands the shards over right away.
+        nodeA.close();
+        nodeA = null;
+        assertEquals(Set.of(0, 1, 2, 3), b.claimShards());
+    }
+
+    @Test
+    void expiryWheelShouldHoldOnlyTheOffersOfOwnedShards() {
+        ExpirySweepCoordinator a = nodeA.getBean(ExpirySweepCoordinator.class);
+        ExpirySweepCoordinator b = nodeB.getBean(ExpirySweepCoordinator.class);
+        OfferExpiryWheel wheelA = nodeA.getBean(OfferExpiryWheel.class);
+        OfferExpiryWheel wheelB = nodeB.getBean(OfferExpiryWheel.class);
+
+        InsuranceRepository repository = nodeA.getBean(InsuranceRepository.class);
+        for (int i = 0; i < 20; i++) {
+            Offer offer = new Offer();
+            offer.setStatus(OfferStatus.PENDING);
+            offer.setPersonalNumber("19901010123" + (i % 10));
+            offer.setCreatedDate(LocalDateTime.now().minusDays(1));
+            repository.save(offer);
+        }
+        assertEquals(0, wheelA.size() + wheelB.size());
+
+        a.claimShards();
+        b.claimShards();
+        a.claimShards();
+        b.claimShards();
+        wheelA.tick();
+        wheelB.tick();
+
+        assertEquals(20, wheelA.size() + wheelB.size());
+        assertTrue(wheelA.size() > 0 && wheelB.size() > 0);
+    }
+
+    private static void assertDisjointAndComplete(Set<Integer> first, Set<Integer> second) {
+        Set<Integer> union = new HashSet<>(first);
+        union.addAll(second);
+        assertEquals(first.size() + second.size(), union.size());
+        assertEquals(SHARDS, union.size());
+    }
+
+    private static ConfigurableApplicationContext startNode(String url, String nodeId) {
+        return new SpringApplicationBuilder(InsuranceApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=" + url,
+                        "--insurance.expiry.lease.enabled=true",
+                        "--insurance.expiry.lease.shards=" + SHARDS,
+                        "--insurance.expiry.lease.ttl=3s",
+                        "--insurance.expiry.lease.node-id=" + nodeId,
+                        // Ticks are driven by the tests, so the ticker never gets to expire anything on its own.
+                        "--insurance.expiry.wheel.enabled=true",
+                        "--insurance.expiry.wheel.tick=1h",
+                        "--insurance.schema.plan-check=false",
+                        "--logging.level.root=WARN");
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.insuranceapi;
+
+import org.example.insuranceapi.service.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1_000;
+
+    @Test
+    void shouldFireEveryIdOnTheFirstTickAtOrAfterItsDeadline() {
+        long start = 1_700_000_123_456L;
+        TimingWheel wheel = new TimingWheel(TICK, start);
+
+        // Deadlines across every level, the level boundaries and past the top level.
+        long[] delays = {0, 1, 999, 1_000, 63_000, 64_000, 65_500, 4_095_000, 4_096_000, 262_144_000,
+                2_592_000_000L, 16_777_216_000L, 20_000_000_000L};
+        Map<Long, Long> deadlines = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < delays.length; i++) {
+            deadlines.put((long) i, start + delays[i]);
+        }
+        for (long id = delays.length; id < 5_000; id++) {
+            deadlines.put(id, start + (long) (random.nextDouble() * 40L * 24 * 3600 * 1000));
+        }
+        deadlines.forEach(wheel::schedule);
+        assertEquals(deadlines.size(), wheel.size());
+
+        // Advance in uneven steps and check that no id fires early or after the tick holding its deadline.
+        long now = start;
+        long end = start + 20_001_000_000L;
+        while (now < end) {
+            now += 1 + (long) (random.nextDouble() * 4 * 3600 * 1000);
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(now, fired::add);
+            for (long id : fired) {
+                long deadline = deadlines.remove(id);
+                assertTrue(deadline <= now, "id " + id + " fired early");
+            }
+            for (long deadline : deadlines.values()) {
+                assertTrue(Math.floorDiv(deadline + TICK - 1, TICK) > now / TICK, "deadline " + deadline + " was missed");
+            }
+        }
+        assertTrue(deadlines.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldFirePastDeadlinesOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(TICK, 10_000);
+        wheel.advance(20_000, id -> fail());
+
+        wheel.schedule(7, 5_000);
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(20_000, fired::add);
+        assertEquals(List.of(7L), fired);
+    }
+}
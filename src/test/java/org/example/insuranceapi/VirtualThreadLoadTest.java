@@ -0,0 +1,89 @@
+package org.example.insuranceapi;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives create + read requests from {@link #CONCURRENCY} concurrent clients, more than Tomcat's default
+ * 200 platform worker threads. Compare the two modes with:
+ * <pre>
+ * ./mvnw test -Pbenchmark -Dtest=VirtualThreadLoadTest
+ * ./mvnw test -Pbenchmark,java21 -Dtest=VirtualThreadLoadTest -Dspring.profiles.active=virtual
+ * </pre>
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "insurance.expiry.cron=-")
+class VirtualThreadLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 1_000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("loadtest.requests-per-client", 20);
+    private static final String BODY = "{\"personalNumber\": \"199010101234\", \"loans\": [150000, 50000], \"monthlyPayment\": 950}";
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    void measureLatencyUnderConcurrentLoad() throws Exception {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(32)).build();
+        long[] latencies = new long[CONCURRENCY * REQUESTS_PER_CLIENT * 2];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        for (int c = 0; c < CONCURRENCY; c++) {
+            clients.execute(() -> {
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    try {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> created = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/offers"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(BODY))
+                                .build(), HttpResponse.BodyHandlers.discarding());
+                        long t1 = System.nanoTime();
+                        String location = created.headers().firstValue("Location").orElseThrow();
+                        client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + location)).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        long t2 = System.nanoTime();
+                        latencies[next.getAndIncrement()] = t1 - t0;
+                        latencies[next.getAndIncrement()] = t2 - t1;
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+
+        long[] sorted = Arrays.copyOf(latencies, next.get());
+        Arrays.sort(sorted);
+        System.out.printf("%s threads, %d clients: %,.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d failures%n",
+                virtualThreads ? "virtual" : "platform", CONCURRENCY, sorted.length / (elapsed / 1e9),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6, failures.get());
+        assertEquals(0, failures.get());
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.ceil(p * sorted.length) - 1] / 1e6;
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.insuranceapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.insuranceapi.config.OfferCacheProperties;
+import org.example.insuranceapi.config.WriteBehindProperties;
+import org.example.insuranceapi.dto.OfferCreateDto;
+import org.example.insuranceapi.event.OfferEvent;
+import org.example.insuranceapi.exception.TooManyRequestsException;
+import org.example.insuranceapi.model.Offer;
+import org.example.insuranceapi.model.OfferStatus;
+import org.example.insuranceapi.repository.InsuranceRepository;
+import org.example.insuranceapi.repository.OfferBulkWriter;
+import org.example.insuranceapi.repository.OfferIdAllocator;
+import org.example.insuranceapi.service.InsuranceService;
+import org.example.insuranceapi.service.OfferCache;
+import org.example.insuranceapi.service.OfferWriteBehind;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"insurance.write-behind.enabled=true", "insurance.write-behind.flush-interval=5ms",
+        "insurance.write-behind.queue-capacity=256"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WriteBehindTest {
+
+    @Autowired
+    private InsuranceService service;
+    @Autowired
+    private InsuranceRepository repository;
+    @Autowired
+    private OfferWriteBehind writeBehind;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final OfferCreateDto dto = new OfferCreateDto("199010101234", List.of(100_000.0, 50_000.0), 950.0);
+
+    @Test
+    void shouldReturnIdBeforeCommitAndPersistInGroups() throws Exception {
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 120; i++) {
+            Offer offer = service.createOffer(dto);
+            assertTrue(ids.add(offer.getId()));
+            assertEquals(OfferStatus.PENDING, service.getOffer(offer.getId()).status());
+        }
+
+        awaitPersisted(ids);
+        Offer stored = repository.findById(ids.iterator().next()).orElseThrow();
+        assertEquals(150_000.0 * 0.038, stored.getPremium());
+        assertEquals(List.of(100_000.0, 50_000.0), stored.getLoans());
+        assertEquals(0L, stored.getVersion());
+    }
+
+    @Test
+    void shouldNotReuseIdsAssignedByHibernate() throws Exception {
+        Set<Long> ids = new HashSet<>();
+        for (int round = 0; round < 3; round++) {
+            for (Offer offer : service.createOffers(List.of(dto, dto, dto))) {
+                assertTrue(ids.add(offer.getId()));
+            }
+            for (int i = 0; i < 60; i++) {
+                assertTrue(ids.add(service.createOffer(dto).getId()));
+            }
+        }
+
+        awaitPersisted(ids);
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        OfferIdAllocator allocator = Mockito.mock(OfferIdAllocator.class);
+        Mockito.when(allocator.nextId()).thenReturn(1L, 2L);
+        OfferWriteBehind writeBehind = new OfferWriteBehind(new WriteBehindProperties(true, 1, 10, Duration.ofMillis(5)),
+                allocator, Mockito.mock(OfferBulkWriter.class), Mockito.mock(TransactionTemplate.class),
+                Mockito.mock(ApplicationEventPublisher.class), new OfferCache(new OfferCacheProperties(10, Duration.ofMinutes(1))),
+                new SimpleMeterRegistry());
+
+        writeBehind.submit(newOffer());
+        assertThrows(TooManyRequestsException.class, () -> writeBehind.submit(newOffer()));
+    }
+
+    @Test
+    void shouldProcessRetryWithSameIdempotencyKeyAfterQueueWasFull() throws Exception {
+        Set<Long> queued = new HashSet<>();
+        writeBehind.stop();
+        try {
+            while (true) {
+                try {
+                    queued.add(service.createOffer(dto).getId());
+                } catch (TooManyRequestsException e) {
+                    break;
+                }
+            }
+            mvc.perform(post("/api/v1/offers")
+                            .header("Idempotency-Key", "queue-full")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isTooManyRequests());
+        } finally {
+            writeBehind.start();
+        }
+        awaitPersisted(queued);
+
+        mvc.perform(post("/api/v1/offers")
+                        .header("Idempotency-Key", "queue-full")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+    }
+
+    @Test
+    void shouldLoseOnlyTheOffersTheDatabaseRefuses() {
+        OfferIdAllocator allocator = Mockito.mock(OfferIdAllocator.class);
+        Mockito.when(allocator.nextId()).thenReturn(1L, 2L, 3L);
+        OfferBulkWriter writer = Mockito.mock(OfferBulkWriter.class);
+        Mockito.doAnswer(invocation -> {
+            List<Offer> offers = invocation.getArgument(0);
+            if (offers.stream().anyMatch(offer -> offer.getId() == 2L)) {
+                throw new DataIntegrityViolationException("duplicate id 2");
+            }
+            return null;
+        }).when(writer).insert(Mockito.anyList());
+        TransactionTemplate transactions = Mockito.mock(TransactionTemplate.class);
+        Mockito.doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactions).executeWithoutResult(Mockito.any());
+        ApplicationEventPublisher events = Mockito.mock(ApplicationEventPublisher.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OfferWriteBehind writeBehind = new OfferWriteBehind(new WriteBehindProperties(true, 10, 10, Duration.ofMillis(5)),
+                allocator, writer, transactions, events, new OfferCache(new OfferCacheProperties(10, Duration.ofMinutes(1))),
+                meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            writeBehind.submit(newOffer());
+        }
+        writeBehind.start();
+        writeBehind.stop();
+
+        ArgumentCaptor<OfferEvent> published = ArgumentCaptor.forClass(OfferEvent.class);
+        Mockito.verify(events, Mockito.times(2)).publishEvent(published.capture());
+        assertEquals(List.of(1L, 3L), published.getAllValues().stream().map(OfferEvent::offerId).toList());
+        assertEquals(1.0, meterRegistry.counter("insurance.writebehind.failed").count());
+    }
+
+    private void awaitPersisted(Set<Long> ids) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (repository.findAllById(ids).size() < ids.size() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(ids.size(), repository.findAllById(ids).size());
+    }
+
+    private static Offer newOffer() {
+        Offer offer = new Offer(0, "199010101234", List.of(1000.0), 50.0);
+        offer.setStatus(OfferStatus.PENDING);
+        offer.setCreatedDate(LocalDateTime.now());
+        return offer;
+    }
+}